@@ -0,0 +1,204 @@
+package com.joansala.game.go;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+import com.joansala.engine.Game;
+
+
+/**
+ * Benchmarks of the hot paths of {@link GoGame}.
+ *
+ * Each benchmark runs over a fixed set of positions for every board
+ * size and game phase. Positions are obtained by playing seeded random
+ * moves that do not fill eyes, thus the same positions are measured
+ * on every build.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GoGameBenchmark {
+
+    /** Seed of the position generator */
+    private static final long SEED = 0x5EED_0000_0000_0B0AL;
+
+    /** Number of positions on each set (a power of two) */
+    private static final int POSITIONS = 16;
+
+    /** Game phases of the position sets */
+    public enum Phase {
+
+        /** A tenth of the points were played */
+        OPENING(0.1),
+
+        /** Half of the points were played */
+        MIDDLE(0.5),
+
+        /** Crowded boards after captures */
+        ENDGAME(1.2);
+
+        /** Plies to play relative to the number of points */
+        final double plies;
+
+        Phase(double plies) {
+            this.plies = plies;
+        }
+    }
+
+    @Param({ "9", "13", "19" })
+    private int size;
+
+    @Param({ "OPENING", "MIDDLE", "ENDGAME" })
+    private Phase phase;
+
+    /** Benchmarked positions */
+    private GoGame[] games;
+
+    /** A legal move on each position */
+    private int[] moves;
+
+    /** Index of the current position */
+    private int current = 0;
+
+
+    /**
+     * Generates the position set of the benchmark.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        final Random random = new Random(SEED ^ size ^ phase.ordinal());
+        final int points = size * size;
+        final int plies = (int) (phase.plies * points);
+
+        games = new GoGame[POSITIONS];
+        moves = new int[POSITIONS];
+
+        for (int i = 0; i < POSITIONS; i++) {
+            games[i] = new GoGame(2 + plies + points, size);
+
+            for (int n = 0; n < plies; n++) {
+                final int move = randomMove(games[i], random);
+
+                if (move == games[i].forfeitMove()) {
+                    break;
+                }
+
+                games[i].makeMove(move);
+            }
+
+            moves[i] = randomMove(games[i], random);
+        }
+    }
+
+
+    /**
+     * Advances to the next position of the set.
+     *
+     * @return          Index of the position
+     */
+    private int next() {
+        return current = (1 + current) & (POSITIONS - 1);
+    }
+
+
+    @Benchmark
+    public long makeUnmakeMove() {
+        final int index = next();
+        final GoGame game = games[index];
+        game.makeMove(moves[index]);
+        final long hash = game.hash();
+        game.unmakeMove();
+        return hash;
+    }
+
+
+    @Benchmark
+    public int nextMove() {
+        final GoGame game = games[next()];
+        int count = 0;
+
+        game.resetCursor();
+
+        while (game.nextMove() != Game.NULL_MOVE) {
+            count++;
+        }
+
+        return count;
+    }
+
+
+    @Benchmark
+    public int isLegal() {
+        final GoGame game = games[next()];
+        final int points = game.forfeitMove();
+        int count = 0;
+
+        for (int move = 0; move < points; move++) {
+            if (game.isLegal(move)) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+
+    @Benchmark
+    public int score() {
+        return games[next()].score();
+    }
+
+
+    @Benchmark
+    public long computeHash() {
+        return games[next()].computeHash();
+    }
+
+
+    @Benchmark
+    public GoGame deepCopy() {
+        return games[next()].deepCopy();
+    }
+
+
+    /**
+     * Picks a random legal move that does not fill an eye, or the
+     * forfeit move if there are no such moves.
+     */
+    private static int randomMove(GoGame game, Random random) {
+        final int points = game.forfeitMove();
+        final int first = random.nextInt(points);
+
+        for (int n = 0; n < points; n++) {
+            final int move = (first + n) % points;
+
+            if (!game.isEye(move) && game.isLegal(move)) {
+                return move;
+            }
+        }
+
+        return game.forfeitMove();
+    }
+}
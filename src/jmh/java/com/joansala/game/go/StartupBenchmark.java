@@ -0,0 +1,167 @@
+package com.joansala.game.go;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.*;
+
+
+/**
+ * Measures the time from the start of an engine process until it
+ * replies with {@code uciok}.
+ *
+ * Each invocation starts the packaged engine on a new virtual machine,
+ * so the jar with dependencies must be built first. A class data
+ * archive created with the appcds profile can be given on the archive
+ * parameter to compare both startup times.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StartupBenchmark {
+
+    /** Directory where the engine is packaged */
+    private static final Path TARGET = Paths.get("target");
+
+    /** File name suffix of the packaged engine */
+    private static final String JAR_SUFFIX = "-jar-with-dependencies.jar";
+
+    /** Path to a class data archive or none */
+    @Param({ "none" })
+    private String archive;
+
+    /** Subcommand that starts the UCI service */
+    @Param({ "service" })
+    private String command;
+
+    /** Command line that starts the engine */
+    private List<String> commandLine;
+
+    /** Engine process being measured */
+    private Process process;
+
+    /** Engine process input */
+    private Writer writer;
+
+
+    /**
+     * Builds the command line of the engine.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        final Path java = Paths.get(System.getProperty("java.home"), "bin", "java");
+
+        commandLine = new ArrayList<>();
+        commandLine.add(java.toString());
+
+        if (!"none".equals(archive)) {
+            if (!Files.isRegularFile(Paths.get(archive))) {
+                throw new IllegalStateException(
+                    "Class data archive not found: " + archive);
+            }
+
+            commandLine.add("-XX:SharedArchiveFile=" + archive);
+        }
+
+        commandLine.add("-jar");
+        commandLine.add(findJar().toString());
+        commandLine.add(command);
+    }
+
+
+    /**
+     * Starts the engine and waits for its identification.
+     */
+    @Benchmark
+    public String startup() throws IOException {
+        process = new ProcessBuilder(commandLine)
+            .redirectErrorStream(true)
+            .start();
+
+        final BufferedReader reader = new BufferedReader(
+            new InputStreamReader(process.getInputStream()));
+        writer = new OutputStreamWriter(process.getOutputStream());
+
+        writer.write("uci\n");
+        writer.flush();
+
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            if ("uciok".equals(line.trim())) {
+                return line;
+            }
+        }
+
+        throw new IllegalStateException(
+            "The engine exited before replying uciok");
+    }
+
+
+    /**
+     * Quits the engine after each measurement.
+     */
+    @TearDown(Level.Invocation)
+    public void quit() throws Exception {
+        if (process != null) {
+            try {
+                writer.write("quit\n");
+                writer.flush();
+            } catch (IOException e) {
+                // The process has already exited
+            }
+
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+
+            process = null;
+        }
+    }
+
+
+    /**
+     * Finds the packaged engine on the target directory.
+     *
+     * @throws IllegalStateException If the engine was not packaged
+     */
+    private static Path findJar() throws IOException {
+        try (Stream<Path> files = Files.list(TARGET)) {
+            return files
+                .filter(path -> path.toString().endsWith(JAR_SUFFIX))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException(
+                    "Package the engine before running this benchmark"));
+        }
+    }
+}
@@ -81,16 +81,16 @@ public class GoBoard extends BaseBoard<Bitset[]> {
         this.gameSize = gameSize;
         switch(gameSize){
             case 9:
-                algebraic = new CoordinateConverter(COORDINATES_9);
-                bitset = new BitsetConverter(BITS_9);
+                algebraic = Notation9.ALGEBRAIC;
+                bitset = Notation9.BITSET;
                 break;
             case 13:
-                algebraic = new CoordinateConverter(COORDINATES_13);
-                bitset = new BitsetConverter(BITS_13);
+                algebraic = Notation13.ALGEBRAIC;
+                bitset = Notation13.BITSET;
                 break;
             default:
-                algebraic = new CoordinateConverter(COORDINATES_19);
-                bitset = new BitsetConverter(BITS_19);
+                algebraic = Notation19.ALGEBRAIC;
+                bitset = Notation19.BITSET;
         }
     }
 
@@ -134,6 +134,20 @@ public class GoBoard extends BaseBoard<Bitset[]> {
     }
 
 
+    /**
+     * Copies the bitboard words of the position into an array. Words
+     * of the black stones are followed by those of the white stones,
+     * for a total of {@code POSITION_WORDS} words.
+     *
+     * @param words     Destination array
+     * @param offset    Index of the first word
+     */
+    public void copyTo(long[] words, int offset) {
+        position[BLACK].copyTo(words, offset);
+        position[WHITE].copyTo(words, offset + BITSET_SIZE);
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -358,13 +372,13 @@ public class GoBoard extends BaseBoard<Bitset[]> {
         int[] starPoints;
         if (this.gameSize == 9) {
             boardString = boardString9;
-            starPoints = STAR_POINTS_9;
+            starPoints = Geometry9.STAR_POINTS;
         } else if (this.gameSize == 13){
             boardString = boardString13;
-            starPoints = STAR_POINTS_13;
+            starPoints = Geometry13.STAR_POINTS;
         } else {
             boardString = boardString19;
-            starPoints = STAR_POINTS_19;
+            starPoints = Geometry19.STAR_POINTS;
         }
 
         return String.format(boardString.
@@ -373,4 +387,31 @@ public class GoBoard extends BaseBoard<Bitset[]> {
             replaceStars(toPieceSymbols(position), starPoints)
         );
     }
+
+
+    /**
+     * Notation converters of the 9x9 board, created on first use.
+     */
+    private static final class Notation9 {
+        static final BitsetConverter BITSET = new BitsetConverter(Geometry9.BITS);
+        static final CoordinateConverter ALGEBRAIC = new CoordinateConverter(Geometry9.COORDINATES);
+    }
+
+
+    /**
+     * Notation converters of the 13x13 board, created on first use.
+     */
+    private static final class Notation13 {
+        static final BitsetConverter BITSET = new BitsetConverter(Geometry13.BITS);
+        static final CoordinateConverter ALGEBRAIC = new CoordinateConverter(Geometry13.COORDINATES);
+    }
+
+
+    /**
+     * Notation converters of the 19x19 board, created on first use.
+     */
+    private static final class Notation19 {
+        static final BitsetConverter BITSET = new BitsetConverter(Geometry19.BITS);
+        static final CoordinateConverter ALGEBRAIC = new CoordinateConverter(Geometry19.COORDINATES);
+    }
 }
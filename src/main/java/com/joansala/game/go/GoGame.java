@@ -19,13 +19,19 @@ package com.joansala.game.go;
  */
 
 import java.util.Arrays;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import com.joansala.engine.Board;
 import com.joansala.engine.base.BaseGame;
 import com.joansala.util.hash.ZobristHash;
 import com.joansala.util.bits.Bitset;
 import com.joansala.game.go.Go.Player;
 import com.joansala.game.go.attacks.Point;
+import com.joansala.game.go.metrics.CapacityEvent;
+import com.joansala.game.go.metrics.GoCounters;
+import com.joansala.game.go.metrics.GoCounters.Counter;
+import com.joansala.game.go.metrics.MoveGenerationEvent;
+import com.joansala.game.go.metrics.ScoringEvent;
 import static com.joansala.game.go.Go.*;
 
 
@@ -40,8 +46,40 @@ public class GoGame extends BaseGame {
     /** Maximum number of plies this object can store */
     public static final int MAX_CAPACITY = Integer.MAX_VALUE / (BITSET_SIZE << 1);
 
-    /** Capacity increases at least this value each time */
-    private static final int CAPACITY_INCREMENT = 128;
+    /** Number of words of the bitboards of a position */
+    public static final int POSITION_WORDS = BITSET_SIZE << 1;
+
+    /** Number of move orderings kept in memory */
+    private static final int ORDERING_SLOTS = 64;
+
+    /** Calls to the hot paths between two timing samples */
+    private static final int SAMPLE_PERIOD = 1024;
+
+    /** Move priority of a capture */
+    private static final int CAPTURE_PRIORITY = 16;
+
+    /** Move priority of an atari escape */
+    private static final int ESCAPE_PRIORITY = 8;
+
+    /** Move priority of a point near the last move */
+    private static final int PROXIMITY_PRIORITY = 4;
+
+    /** Move priority of a contact point between stones */
+    private static final int PATTERN_PRIORITY = 2;
+
+    /** Move priority of a point off the first line */
+    private static final int CENTER_PRIORITY = 1;
+
+    /** Number of distinct move priorities */
+    private static final int PRIORITY_COUNT = CAPTURE_PRIORITY << 1;
+
+    /** Hash code generators shared by board size */
+    private static final Map<Integer, ZobristHash> hashers =
+        new ConcurrentHashMap<>();
+
+    /** Start boards shared by board size */
+    private static final Map<Integer, GoBoard> startBoards =
+        new ConcurrentHashMap<>();
 
     /** Hash code generator */
     private ZobristHash hasher;
@@ -55,21 +93,15 @@ public class GoGame extends BaseGame {
     /** Player to move opponent */
     private Player rival;
 
-    /** Move generation cursors */
-    private int[] cursors;
-
-    /** Ko point history */
-    private int[] kopoints;
-
-    /** Hash code history */
-    private long[] hashes;
-
-    /** Position bitboards history */
-    private long[] states;
+    /** States of the played plies */
+    private GoHistory history;
 
     /** Current position bitboards */
     private Bitset[] state;
 
+    /** Scratch bitboard words of two positions */
+    private final long[] words = new long[POSITION_WORDS << 1];
+
     /** Current move generation cursor */
     private int cursor;
 
@@ -85,6 +117,66 @@ public class GoGame extends BaseGame {
     /** Player fortfeits its turn */
     private int forfeitMove;
 
+    /** Number of plies that can be replayed from the history */
+    private int redoLength = 0;
+
+    /** Current move trace identifier */
+    private int epoch = 0;
+
+    /** History index where the current move trace started */
+    private int traceIndex = -1;
+
+    /** If moves are being traced */
+    private boolean tracing = false;
+
+    /** Trace identifier on which each point was last played */
+    private int[][] traceEpochs;
+
+    /** First traced ply on which each point was played */
+    private int[][] tracePlies;
+
+    /** If moves are generated by priority order */
+    private boolean ordered = false;
+
+    /** Generated moves since the last timing sample */
+    private int moveSamples = 0;
+
+    /** Score computations since the last timing sample */
+    private int scoreSamples = 0;
+
+    /** Moves sorted by priority for recent positions */
+    private int[][] orderings;
+
+    /** Position and last move keys of the orderings */
+    private long[] orderingKeys;
+
+    /** Number of moves on each ordering */
+    private int[] orderingLengths;
+
+    /** Priority of each move of the position being ordered */
+    private int[] priorities;
+
+    /** Number of moves for each priority */
+    private int[] buckets;
+
+    /** Stones of the last filled chain */
+    private int[] chainStones;
+
+    /** Visit mark of each intersection */
+    private int[] chainMarks;
+
+    /** Current intersection visit mark */
+    private int chainMark = 0;
+
+    /** Number of stones of the last filled chain */
+    private int chainLength = 0;
+
+    /** Number of liberties of the last filled chain */
+    private int chainLiberties = 0;
+
+    /** A liberty of the last filled chain */
+    private int chainLiberty = NULL_MOVE;
+
     /**
      * Instantiate a new game on the start state and game size.
      */
@@ -108,16 +200,28 @@ public class GoGame extends BaseGame {
      * @param gameSize      Board size to play on, supports 9,13,19
      */
     public GoGame(int capacity, int gameSize) {
+        this(capacity, gameSize, false);
+    }
+
+    /**
+     * Instantiate a new game on the start state. The bitboards of the
+     * game history may be stored off the heap, which is useful for
+     * very long games.
+     *
+     * @param capacity      Initial capacity
+     * @param gameSize      Board size to play on, supports 9,13,19
+     * @param offHeap       If the history is stored off the heap
+     */
+    public GoGame(int capacity, int gameSize, boolean offHeap) {
         super(capacity);
         this.gameSize = gameSize;
         this.komi = DEFAULT_KOMI_SCORE;
         this.forfeitMove = gameSize * gameSize;
         this.hasher = hashFunction(gameSize * gameSize);
-        cursors = new int[capacity];
-        kopoints = new int[capacity];
-        hashes = new long[capacity];
-        states = new long[capacity * BITSET_SIZE << 1];
-        setBoard(new GoBoard(gameSize));
+        this.history = new GoHistory(capacity, offHeap);
+        this.capacity = history.capacity();
+        growMoves(this.capacity);
+        setBoard(startBoard(gameSize));
     }
 
 
@@ -132,10 +236,7 @@ public class GoGame extends BaseGame {
         GoBoard board,
         Player player,
         Player rival,
-        int[] cursors,
-        int[] kopoints,
-        long[] hashes,
-        long[] states,
+        GoHistory history,
         Bitset[] state,
         int cursor,
         int kopoint,
@@ -156,10 +257,7 @@ public class GoGame extends BaseGame {
         this.board = new GoBoard(board.position(), turn, kopoint, gameSize);
         this.player = player;
         this.rival = rival;
-        this.cursors = Arrays.copyOf(cursors, cursors.length);
-        this.kopoints = Arrays.copyOf(kopoints, kopoints.length);
-        this.hashes = Arrays.copyOf(hashes, hashes.length);
-        this.states = Arrays.copyOf(states, states.length);
+        this.history = history.copy();
         this.state = new Bitset[state.length];
         for (int i=0; i < state.length; i++){
             this.state[i] = state[i].clone();
@@ -172,7 +270,9 @@ public class GoGame extends BaseGame {
     }
 
     public GoGame deepCopy() {
-        return new GoGame(
+        GoCounters.increment(Counter.COPIES);
+
+        GoGame game = new GoGame(
             this.capacity,
             this.index,
             this.turn,
@@ -183,10 +283,7 @@ public class GoGame extends BaseGame {
             this.board,
             this.player,
             this.rival,
-            this.cursors,
-            this.kopoints,
-            this.hashes,
-            this.states,
+            this.history,
             this.state,
             this.cursor,
             this.kopoint,
@@ -194,6 +291,10 @@ public class GoGame extends BaseGame {
             this.gameSize,
             this.forfeitMove
         );
+
+        game.setMoveOrdering(ordered);
+
+        return game;
     }
 
     /**
@@ -227,6 +328,13 @@ public class GoGame extends BaseGame {
      * {@see #setBoard(Board)}
      */
     public void setBoard(GoBoard board) {
+        if (isRecorded(board)) {
+            this.board = board;
+            rewind();
+            return;
+        }
+
+        this.redoLength = 0;
         this.index = -1;
         this.board = board;
         this.move = NULL_MOVE;
@@ -239,6 +347,74 @@ public class GoGame extends BaseGame {
     }
 
 
+    /**
+     * Returns this game to the start position of its board size and
+     * discards its history, keeping the allocated capacity. The komi
+     * and move generation settings are restored to their defaults.
+     */
+    public void reset() {
+        this.index = -1;
+        this.redoLength = 0;
+        this.ordered = false;
+        this.tracing = false;
+        this.komi = DEFAULT_KOMI_SCORE;
+        setBoard(startBoard(gameSize));
+    }
+
+
+    /**
+     * Check if a board is the start position of the game history,
+     * either played or pending to be replayed.
+     *
+     * @param board     Board to check
+     * @return          If the board starts the history
+     */
+    private boolean isRecorded(GoBoard board) {
+        if (index < 0 && redoLength == 0) {
+            return false;
+        }
+
+        final int turn = (index & 1) == 0 ? -turn() : turn();
+
+        if (board.gameSize() != gameSize || board.turn() != turn) {
+            return false;
+        }
+
+        if (board.kopoint() != history.kopoint(0)) {
+            return false;
+        }
+
+        final Bitset[] position = board.position();
+        position[BLACK].copyTo(words, 0);
+        position[WHITE].copyTo(words, BITSET_SIZE);
+        history.copyPosition(0, words, POSITION_WORDS);
+
+        return Arrays.equals(words, 0, POSITION_WORDS,
+            words, POSITION_WORDS, POSITION_WORDS << 1);
+    }
+
+
+    /**
+     * Returns to the start position of the game keeping the played
+     * moves and their states on the history, so that replaying them
+     * with {@link #makeMove(int)} only restores the recorded states.
+     */
+    private void rewind() {
+        final int length = 1 + index;
+
+        if (length > 0) {
+            ensureCapacity(1 + length);
+            pushState();
+            popState(0);
+            setTurn(board.turn());
+            redoLength = Math.max(redoLength, length);
+            index = -1;
+        }
+
+        resetCursor();
+    }
+
+
     /**
      * Sets the current player to move.
      *
@@ -265,6 +441,90 @@ public class GoGame extends BaseGame {
     }
 
 
+    /**
+     * Board size of this game.
+     */
+    public int gameSize() {
+        return gameSize;
+    }
+
+
+    /**
+     * Move identifier for a player that forfeits its turn.
+     */
+    public int forfeitMove() {
+        return forfeitMove;
+    }
+
+
+    /**
+     * Intersection where the player to move cannot play because of
+     * the ko rule, if the move would capture a single stone.
+     *
+     * @return          Ko point or {@code NULL_MOVE}
+     */
+    public int kopoint() {
+        return kopoint;
+    }
+
+
+    /**
+     * Copies the bitboard words of a position to an array. Black
+     * stones are copied first, followed by the white stones, for a
+     * total of {@code POSITION_WORDS} words.
+     *
+     * @param plies     Plies before the current position
+     * @param words     Destination array
+     * @param offset    Destination index of the first word
+     * @return          If the position exists on the history
+     */
+    public boolean copyPosition(int plies, long[] words, int offset) {
+        if (plies == 0) {
+            state[BLACK].copyTo(words, offset);
+            state[WHITE].copyTo(words, offset + BITSET_SIZE);
+            return true;
+        }
+
+        final int slot = 1 + index - plies;
+
+        if (plies < 0 || slot < 0) {
+            return false;
+        }
+
+        history.copyPosition(slot, words, offset);
+
+        return true;
+    }
+
+
+    /**
+     * Sets how legal moves are generated. By default moves are returned
+     * in increasing intersection order. When ordering is enabled moves
+     * are returned by decreasing priority: captures, atari escapes,
+     * points near the last move, contact points and points off the
+     * first line come first, while the forfeit move comes last.
+     *
+     * The generation mode must not change while a cursor obtained on
+     * the other mode is in use.
+     *
+     * @param ordered   If moves must be sorted by priority
+     */
+    public void setMoveOrdering(boolean ordered) {
+        if (ordered && orderings == null) {
+            final int size = 1 + forfeitMove;
+            orderings = new int[ORDERING_SLOTS][size];
+            orderingKeys = new long[ORDERING_SLOTS];
+            orderingLengths = new int[ORDERING_SLOTS];
+            priorities = new int[size];
+            buckets = new int[PRIORITY_COUNT];
+            chainStones = new int[size];
+            chainMarks = new int[size];
+        }
+
+        this.ordered = ordered;
+    }
+
+
     /**
      * Sets the handicap value for black.
      */
@@ -273,12 +533,20 @@ public class GoGame extends BaseGame {
     }
 
 
+    /**
+     * Handicap value for black.
+     */
+    public Double getKomiScore() {
+        return komi;
+    }
+
+
     /**
      * {@inheritDoc}
      */
     @Override
     public GoBoard toBoard() {
-        return new GoBoard(state, turn, board.gameSize());
+        return new GoBoard(state, turn(), kopoint, gameSize);
     }
 
 
@@ -328,6 +596,7 @@ public class GoGame extends BaseGame {
      * Check if a move targets the current Ko point.
      */
     private boolean isKoPoint(int move) {
+        GoCounters.increment(Counter.KO_CHECKS);
         return move == kopoint;
     }
 
@@ -341,6 +610,29 @@ public class GoGame extends BaseGame {
     }
 
 
+    /**
+     * Check if an empty point is surrounded only by stones of the
+     * player to move. Playouts avoid filling such points, since doing
+     * so can only destroy the player's own eyes.
+     *
+     * @param point         Intersection point
+     * @return              If the point is an eye of the player
+     */
+    public boolean isEye(int point) {
+        if (isForfeit(point) || !isEmptyPoint(point)) {
+            return false;
+        }
+
+        for (int neighbor : Point.attacks(this.gameSize, point)) {
+            if (!state[player.color].contains(neighbor)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+
     /**
      * Check if a stone would be captured immediately if placed on a point.
      * That is, if the move would not capture any rival stones and the
@@ -391,7 +683,7 @@ public class GoGame extends BaseGame {
     public boolean isRepetition() {
         for (int n = index; n >= 0; n--) {
             if (moves[n] != forfeitMove) {
-                if (hashes[n] == this.hash) {
+                if (history.hash(n) == this.hash) {
                     return true;
                 }
             }
@@ -493,10 +785,59 @@ public class GoGame extends BaseGame {
      */
     @Override
     public void makeMove(int move) {
+        if (tracing == true) {
+            trace(move);
+        }
+
+        if (isRedo(move)) {
+            redoMove();
+            return;
+        }
+
+        GoCounters.increment(Counter.MOVES);
+
         pushState();
         movePieces(move);
         switchTurn();
         this.move = move;
+        this.redoLength = 0;
+        resetCursor();
+    }
+
+
+    /**
+     * Performs a sequence of moves on the game. Moves are trusted to
+     * be legal and are not validated. The history capacity is grown
+     * at most once and moves that were already played on the same
+     * position after a call to {@code setBoard} are not recomputed.
+     *
+     * @param moves     Legal moves to perform
+     */
+    public void makeMoves(int[] moves) {
+        ensureCapacity(1 + index + moves.length);
+
+        for (int move : moves) {
+            makeMove(move);
+        }
+    }
+
+
+    /**
+     * Check if a move is the next recorded move on the history.
+     */
+    private boolean isRedo(int move) {
+        final int ply = index + 2;
+        return ply <= redoLength && moves[ply] == move;
+    }
+
+
+    /**
+     * Performs the next recorded move restoring its state.
+     */
+    private void redoMove() {
+        index++;
+        popState(1 + index);
+        switchTurn();
         resetCursor();
     }
 
@@ -530,6 +871,41 @@ public class GoGame extends BaseGame {
      */
     @Override
     public int nextMove() {
+        if (++moveSamples < SAMPLE_PERIOD) {
+            return generateMove();
+        }
+
+        final MoveGenerationEvent event = new MoveGenerationEvent();
+        moveSamples = 0;
+
+        if (event.isEnabled() == false) {
+            return generateMove();
+        }
+
+        event.begin();
+        final int move = generateMove();
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.gameSize = gameSize;
+            event.period = SAMPLE_PERIOD;
+            event.commit();
+        }
+
+        return move;
+    }
+
+
+    /**
+     * Returns the next legal move for the current cursor.
+     *
+     * @return          Move identifier or {@code NULL_MOVE}
+     */
+    private int generateMove() {
+        if (ordered == true) {
+            return nextOrderedMove();
+        }
+
         while (cursor < forfeitMove) {
             if (isLegal(++cursor)) {
                 return cursor;
@@ -539,6 +915,213 @@ public class GoGame extends BaseGame {
         return NULL_MOVE;
     }
 
+    /**
+     * Returns the next legal move on the priority ordering of the
+     * current position. The cursor holds the rank of the last move
+     * returned on the ordering.
+     *
+     * @return          Move identifier or {@code NULL_MOVE}
+     */
+    private int nextOrderedMove() {
+        final int slot = orderingSlot();
+        final int[] ordering = orderings[slot];
+        final int length = orderingLengths[slot];
+
+        while (cursor < length - 1) {
+            final int move = ordering[++cursor];
+
+            if (isLegal(move)) {
+                return move;
+            }
+        }
+
+        return NULL_MOVE;
+    }
+
+
+    /**
+     * Finds the ordering slot for the current position and last move,
+     * computing the ordering if it is not already in memory.
+     *
+     * @return          Ordering slot index
+     */
+    private int orderingSlot() {
+        final long key = hash ^ (0x9E3779B97F4A7C15L * (2 + move));
+        final int slot = (int) (key ^ (key >>> 32)) & (ORDERING_SLOTS - 1);
+
+        if (orderingKeys[slot] != key || orderingLengths[slot] == 0) {
+            orderingLengths[slot] = computeOrdering(orderings[slot]);
+            orderingKeys[slot] = key;
+        }
+
+        return slot;
+    }
+
+
+    /**
+     * Sorts the empty intersections of the current position by their
+     * move priority and appends the forfeit move. Uses a counting sort
+     * over the priority values, thus no objects are allocated.
+     *
+     * @param ordering  Array where moves are stored
+     * @return          Number of moves stored
+     */
+    private int computeOrdering(int[] ordering) {
+        final int boardSize = forfeitMove;
+
+        Arrays.fill(buckets, 0);
+
+        for (int point = 0; point < boardSize; point++) {
+            priorities[point] = isEmptyPoint(point) ?
+                computePriority(point) : NULL_MOVE;
+        }
+
+        // Captures and atari escapes on the liberties of chains
+
+        final int visited = nextChainMark();
+
+        for (int point = 0; point < boardSize; point++) {
+            if (chainMarks[point] == visited || isEmptyPoint(point)) {
+                continue;
+            }
+
+            final int color = state[BLACK].contains(point) ? BLACK : WHITE;
+            fillChain(color, point, visited);
+
+            if (chainLiberties == 1) {
+                priorities[chainLiberty] |= (color == player.color) ?
+                    ESCAPE_PRIORITY : CAPTURE_PRIORITY;
+            }
+        }
+
+        // Counting sort by decreasing priority
+
+        for (int point = 0; point < boardSize; point++) {
+            if (priorities[point] >= 0) {
+                buckets[priorities[point]]++;
+            }
+        }
+
+        int start = 0;
+
+        for (int priority = PRIORITY_COUNT - 1; priority >= 0; priority--) {
+            final int count = buckets[priority];
+            buckets[priority] = start;
+            start += count;
+        }
+
+        for (int point = 0; point < boardSize; point++) {
+            if (priorities[point] >= 0) {
+                ordering[buckets[priorities[point]]++] = point;
+            }
+        }
+
+        ordering[start] = forfeitMove;
+
+        return 1 + start;
+    }
+
+
+    /**
+     * Priority of an empty point, not accounting for captures and
+     * atari escapes. Points that are eyes of the player to move have
+     * the lowest priority.
+     *
+     * @param point     Empty intersection
+     * @return          Move priority
+     */
+    private int computePriority(int point) {
+        if (isEye(point)) {
+            return 0;
+        }
+
+        final int row = point / gameSize;
+        final int column = point % gameSize;
+        final int edge = gameSize - 1;
+        int priority = 0;
+
+        if (row > 0 && row < edge && column > 0 && column < edge) {
+            priority |= CENTER_PRIORITY;
+        }
+
+        if (move >= 0 && move < forfeitMove) {
+            final int distance =
+                Math.abs(row - move / gameSize) +
+                Math.abs(column - move % gameSize);
+
+            if (distance <= 2) {
+                priority |= PROXIMITY_PRIORITY;
+            }
+        }
+
+        boolean touchesPlayer = false;
+        boolean touchesRival = false;
+
+        for (int neighbor : Point.attacks(this.gameSize, point)) {
+            touchesPlayer |= state[player.color].contains(neighbor);
+            touchesRival |= state[rival.color].contains(neighbor);
+        }
+
+        if (touchesPlayer && touchesRival) {
+            priority |= PATTERN_PRIORITY;
+        }
+
+        return priority;
+    }
+
+
+    /**
+     * Fills the chain of stones that contains a point, marking its
+     * stones as visited and counting its distinct liberties. This
+     * method assumes there is a stone of the given color on the point
+     * and does not allocate any objects.
+     *
+     * @param color         Color of stones
+     * @param point         Start point
+     * @param visited       Visit mark for the chain stones
+     */
+    private void fillChain(int color, int point, int visited) {
+        final int counted = nextChainMark();
+
+        chainLiberty = NULL_MOVE;
+        chainLiberties = 0;
+        chainLength = 0;
+
+        chainMarks[point] = visited;
+        chainStones[chainLength++] = point;
+
+        for (int i = 0; i < chainLength; i++) {
+            for (int neighbor : Point.attacks(this.gameSize, chainStones[i])) {
+                if (state[color].contains(neighbor)) {
+                    if (chainMarks[neighbor] != visited) {
+                        chainMarks[neighbor] = visited;
+                        chainStones[chainLength++] = neighbor;
+                    }
+                } else if (!state[1 ^ color].contains(neighbor)) {
+                    if (chainMarks[neighbor] != counted) {
+                        chainMarks[neighbor] = counted;
+                        chainLiberty = neighbor;
+                        chainLiberties++;
+                    }
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Obtain a new visit mark for the intersections.
+     */
+    private int nextChainMark() {
+        if (++chainMark == Integer.MAX_VALUE) {
+            Arrays.fill(chainMarks, 0);
+            chainMark = 1;
+        }
+
+        return chainMark;
+    }
+
+
     /**
      * {@inheritDoc}
      */
@@ -547,6 +1130,70 @@ public class GoGame extends BaseGame {
         return lastMove;
     }
 
+    /**
+     * Starts tracing the moves played from the current position. Each
+     * trace discards the previous one in constant time by increasing
+     * an epoch counter instead of clearing the trace arrays.
+     */
+    public void startTrace() {
+        if (traceEpochs == null) {
+            final int size = 1 + forfeitMove;
+            traceEpochs = new int[PIECE_COUNT][size];
+            tracePlies = new int[PIECE_COUNT][size];
+        }
+
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(traceEpochs[BLACK], 0);
+            Arrays.fill(traceEpochs[WHITE], 0);
+            epoch = 1;
+        }
+
+        traceIndex = index;
+        tracing = true;
+    }
+
+
+    /**
+     * Stops tracing moves. The current trace can still be queried
+     * until a new one is started.
+     */
+    public void stopTrace() {
+        tracing = false;
+    }
+
+
+    /**
+     * Ply, relative to the start of the current trace, on which a
+     * player first played on the given point.
+     *
+     * @param turn      {@code SOUTH} or {@code NORTH}
+     * @param move      Move identifier
+     * @return          Traced ply or {@code NULL_MOVE} if not played
+     */
+    public int tracedPly(int turn, int move) {
+        final int color = (turn == SOUTH) ? BLACK : WHITE;
+
+        if (traceEpochs == null || traceEpochs[color][move] != epoch) {
+            return NULL_MOVE;
+        }
+
+        return tracePlies[color][move];
+    }
+
+
+    /**
+     * Records a move of the player to move on the current trace.
+     */
+    private void trace(int move) {
+        final int color = player.color;
+
+        if (traceEpochs[color][move] != epoch) {
+            traceEpochs[color][move] = epoch;
+            tracePlies[color][move] = index - traceIndex;
+        }
+    }
+
+
     /**
      * Performs a move on the current position.
      *
@@ -617,6 +1264,8 @@ public class GoGame extends BaseGame {
      * @param point         Start point
      */
     private Chain chain(int color, int point) {
+        GoCounters.increment(Counter.CHAINS);
+
         final Chain chain = new Chain();
         chain(chain, color, point);
         return chain;
@@ -652,6 +1301,39 @@ public class GoGame extends BaseGame {
      * @return          Accumulated scores for each player
      */
     private int[] computeScores() {
+        GoCounters.increment(Counter.SCORES);
+
+        if (++scoreSamples < SAMPLE_PERIOD) {
+            return countScores();
+        }
+
+        final ScoringEvent event = new ScoringEvent();
+        scoreSamples = 0;
+
+        if (event.isEnabled() == false) {
+            return countScores();
+        }
+
+        event.begin();
+        final int[] scores = countScores();
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.gameSize = gameSize;
+            event.period = SAMPLE_PERIOD;
+            event.commit();
+        }
+
+        return scores;
+    }
+
+
+    /**
+     * Counts the stones and surrounded areas of each player.
+     *
+     * @return          Accumulated scores for each player
+     */
+    private int[] countScores() {
         int empties = 0;
         int[] scores = new int[2];
         Bitset areas = new Bitset(BITSET_SIZE);
@@ -710,13 +1392,7 @@ public class GoGame extends BaseGame {
     private void pushState() {
         index++;
         moves[index] = move;
-        hashes[index] = hash;
-        cursors[index] = cursor;
-        kopoints[index] = kopoint;
-
-        final int i = index * BITSET_SIZE << 1;
-        state[WHITE].copyTo(states, i + BITSET_SIZE);
-        state[BLACK].copyTo(states, i);
+        history.store(index, state, hash, cursor, kopoint);
     }
 
 
@@ -724,13 +1400,10 @@ public class GoGame extends BaseGame {
      * Retrieve the current game state from the history.
      */
     private void popState(int index) {
-        final int i = index * BITSET_SIZE << 1;
-        state[WHITE].copyFrom(states, i + BITSET_SIZE);
-        state[BLACK].copyFrom(states, i);
-
-        kopoint = kopoints[index];
-        cursor = cursors[index];
-        hash = hashes[index];
+        history.load(index, state);
+        kopoint = history.kopoint(index);
+        cursor = history.cursor(index);
+        hash = history.hash(index);
         move = moves[index];
     }
 
@@ -740,47 +1413,76 @@ public class GoGame extends BaseGame {
      */
     @Override
     protected long computeHash() {
-        AtomicLong hash = new AtomicLong(player.sign);
+        long hash = player.sign;
 
         for (int piece = 0; piece < PIECE_COUNT; piece++) {
-            final int stone = piece;
+            state[piece].copyTo(words, 0);
 
-            state[piece].forEach(index -> {
-                final long value = hash.longValue();
-                hash.set(hasher.insert(value, index, stone));
-            });
+            for (int n = 0; n < BITSET_SIZE; n++) {
+                for (long bits = words[n]; bits != 0; bits &= bits - 1) {
+                    final int index = (n << 6) + Long.numberOfTrailingZeros(bits);
+                    hash = hasher.insert(hash, index, piece);
+                }
+            }
         }
 
-        return hash.longValue();
+        return hash;
     }
 
 
     /**
      * {@inheritDoc}
+     *
+     * The history grows by allocating only the chunks needed to store
+     * the new plies. The moves array doubles its length when it must
+     * grow, so growing it has a constant amortized cost.
      */
     @Override
     public void ensureCapacity(int size) {
         if (size > this.capacity) {
-            size = Math.max(size, capacity + CAPACITY_INCREMENT);
-            size = Math.min(MAX_CAPACITY, size);
+            final CapacityEvent event = new CapacityEvent();
+            event.begin();
 
-            states = Arrays.copyOf(states, size * (BITSET_SIZE << 1));
-            kopoints = Arrays.copyOf(kopoints, size);
-            cursors = Arrays.copyOf(cursors, size);
-            hashes = Arrays.copyOf(hashes, size);
-            moves = Arrays.copyOf(moves, size);
-            capacity = size;
+            history.ensureCapacity(Math.min(MAX_CAPACITY, size));
+            growMoves(history.capacity());
 
-            System.gc();
+            event.gameSize = gameSize;
+            event.previousCapacity = capacity;
+            event.capacity = history.capacity();
+            event.commit();
+
+            capacity = history.capacity();
         }
     }
 
 
     /**
-     * Initialize the hash code generator.
+     * Grows the moves array to hold at least the given number of
+     * plies. Its length is at least doubled each time.
+     */
+    private void growMoves(int size) {
+        if (size > moves.length) {
+            final long length = Math.max(size, 2L * moves.length);
+            moves = Arrays.copyOf(moves, (int) Math.min(Integer.MAX_VALUE, length));
+        }
+    }
+
+
+    /**
+     * Obtain the shared hash code generator for a number of points.
      */
     private static ZobristHash hashFunction(int boardSize) {
-        return new ZobristHash(RANDOM_SEED, PIECE_COUNT, boardSize);
+        return hashers.computeIfAbsent(boardSize,
+            size -> new ZobristHash(RANDOM_SEED, PIECE_COUNT, size));
+    }
+
+
+    /**
+     * Obtain the shared start board of a board size. Boards are never
+     * modified, thus they can be shared among games.
+     */
+    private static GoBoard startBoard(int gameSize) {
+        return startBoards.computeIfAbsent(gameSize, GoBoard::new);
     }
 
 
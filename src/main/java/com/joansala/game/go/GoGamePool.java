@@ -0,0 +1,106 @@
+package com.joansala.game.go;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+
+/**
+ * A bounded pool of reusable games for each board size.
+ *
+ * Released games are reset to their start position and kept, with
+ * their allocated history, until they are acquired again. Games are
+ * discarded when the pool for their size is full. This class is safe
+ * to use from multiple threads and never blocks.
+ */
+public final class GoGamePool {
+
+    /** Supported board sizes */
+    private static final int[] SIZES = { 9, 13, 19 };
+
+    /** Idle games for each board size */
+    private final ArrayBlockingQueue<GoGame>[] queues;
+
+
+    /**
+     * Creates a new pool.
+     *
+     * @param maxIdle       Maximum idle games for each board size
+     */
+    @SuppressWarnings("unchecked")
+    public GoGamePool(int maxIdle) {
+        queues = new ArrayBlockingQueue[SIZES.length];
+
+        for (int i = 0; i < SIZES.length; i++) {
+            queues[i] = new ArrayBlockingQueue<>(maxIdle);
+        }
+    }
+
+
+    /**
+     * Obtains a game on the start position. Returns an idle game if
+     * there is one available or creates a new one otherwise.
+     *
+     * @param gameSize      Board size
+     * @return              Game instance
+     */
+    public GoGame acquire(int gameSize) {
+        final GoGame game = queue(gameSize).poll();
+        return game != null ? game : new GoGame(gameSize);
+    }
+
+
+    /**
+     * Returns a game to the pool. The game must not be used after it
+     * was released.
+     *
+     * @param game          Game instance
+     */
+    public void release(GoGame game) {
+        game.reset();
+        queue(game.gameSize()).offer(game);
+    }
+
+
+    /**
+     * Number of idle games of a board size.
+     *
+     * @param gameSize      Board size
+     */
+    public int idle(int gameSize) {
+        return queue(gameSize).size();
+    }
+
+
+    /**
+     * Queue of idle games for a board size.
+     *
+     * @throws IllegalArgumentException If the size is not supported
+     */
+    private ArrayBlockingQueue<GoGame> queue(int gameSize) {
+        for (int i = 0; i < SIZES.length; i++) {
+            if (SIZES[i] == gameSize) {
+                return queues[i];
+            }
+        }
+
+        throw new IllegalArgumentException(
+            "Unsupported board size: " + gameSize);
+    }
+}
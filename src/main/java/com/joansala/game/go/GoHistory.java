@@ -0,0 +1,291 @@
+package com.joansala.game.go;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import com.joansala.util.bits.Bitset;
+import static com.joansala.game.go.Go.*;
+
+
+/**
+ * Stores the state of a game for each ply of its history.
+ *
+ * The history is split in fixed size chunks which are allocated as
+ * the game grows, thus growing the history never copies the states
+ * already stored. Bitboards may be kept off the heap, which is useful
+ * for very long analysis lines.
+ */
+final class GoHistory {
+
+    /** Binary logarithm of the plies on each chunk */
+    private static final int CHUNK_SHIFT = 6;
+
+    /** Number of plies stored on each chunk */
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    /** Mask of the ply index within a chunk */
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /** Number of words of the bitboards of a position */
+    private static final int WORDS = BITSET_SIZE << 1;
+
+    /** If bitboards are stored off the heap */
+    private final boolean direct;
+
+    /** Words of a position being transferred off the heap */
+    private final long[] buffer;
+
+    /** Bitboard chunks stored on the heap */
+    private long[][] states;
+
+    /** Bitboard chunks stored off the heap */
+    private LongBuffer[] buffers;
+
+    /** Hash code chunks */
+    private long[][] hashes;
+
+    /** Move generation cursor chunks */
+    private int[][] cursors;
+
+    /** Ko point chunks */
+    private int[][] kopoints;
+
+    /** Number of allocated chunks */
+    private int chunks = 0;
+
+
+    /**
+     * Creates a new history.
+     *
+     * @param capacity      Initial capacity in plies
+     * @param direct        If bitboards are stored off the heap
+     */
+    GoHistory(int capacity, boolean direct) {
+        this.direct = direct;
+        this.buffer = direct ? new long[WORDS] : null;
+        this.states = direct ? null : new long[0][];
+        this.buffers = direct ? new LongBuffer[0] : null;
+        this.hashes = new long[0][];
+        this.cursors = new int[0][];
+        this.kopoints = new int[0][];
+        ensureCapacity(capacity);
+    }
+
+
+    /**
+     * Creates a copy of another history.
+     */
+    private GoHistory(GoHistory history) {
+        this(history.capacity(), history.direct);
+
+        for (int n = 0; n < chunks; n++) {
+            if (direct == true) {
+                buffers[n].put(history.buffers[n].duplicate());
+                buffers[n].clear();
+            } else {
+                System.arraycopy(history.states[n], 0, states[n], 0, states[n].length);
+            }
+
+            System.arraycopy(history.hashes[n], 0, hashes[n], 0, CHUNK_SIZE);
+            System.arraycopy(history.cursors[n], 0, cursors[n], 0, CHUNK_SIZE);
+            System.arraycopy(history.kopoints[n], 0, kopoints[n], 0, CHUNK_SIZE);
+        }
+    }
+
+
+    /**
+     * Returns a deep copy of this history.
+     */
+    GoHistory copy() {
+        return new GoHistory(this);
+    }
+
+
+    /**
+     * Number of plies that can be stored without growing.
+     */
+    int capacity() {
+        return chunks << CHUNK_SHIFT;
+    }
+
+
+    /**
+     * Allocates chunks until the history can store a number of plies.
+     * Only the new chunks and the chunk directory are allocated.
+     *
+     * @param size          Minimum capacity in plies
+     */
+    void ensureCapacity(int size) {
+        final int count = (size + CHUNK_MASK) >>> CHUNK_SHIFT;
+
+        if (count <= chunks) {
+            return;
+        }
+
+        if (count > hashes.length) {
+            final int length = Math.max(count, hashes.length << 1);
+
+            if (direct == true) {
+                buffers = Arrays.copyOf(buffers, length);
+            } else {
+                states = Arrays.copyOf(states, length);
+            }
+
+            hashes = Arrays.copyOf(hashes, length);
+            cursors = Arrays.copyOf(cursors, length);
+            kopoints = Arrays.copyOf(kopoints, length);
+        }
+
+        for (int n = chunks; n < count; n++) {
+            if (direct == true) {
+                buffers[n] = ByteBuffer
+                    .allocateDirect(Long.BYTES * WORDS * CHUNK_SIZE)
+                    .order(ByteOrder.nativeOrder()).asLongBuffer();
+            } else {
+                states[n] = new long[WORDS * CHUNK_SIZE];
+            }
+
+            hashes[n] = new long[CHUNK_SIZE];
+            cursors[n] = new int[CHUNK_SIZE];
+            kopoints[n] = new int[CHUNK_SIZE];
+        }
+
+        chunks = count;
+    }
+
+
+    /**
+     * Stores the state of a ply.
+     *
+     * @param ply           Ply index
+     * @param state         Bitboards of the position
+     * @param hash          Hash code of the position
+     * @param cursor        Move generation cursor
+     * @param kopoint       Ko point of the position
+     */
+    void store(int ply, Bitset[] state, long hash, int cursor, int kopoint) {
+        final int chunk = ply >>> CHUNK_SHIFT;
+        final int slot = ply & CHUNK_MASK;
+
+        hashes[chunk][slot] = hash;
+        cursors[chunk][slot] = cursor;
+        kopoints[chunk][slot] = kopoint;
+
+        if (direct == false) {
+            final int offset = slot * WORDS;
+            state[BLACK].copyTo(states[chunk], offset);
+            state[WHITE].copyTo(states[chunk], offset + BITSET_SIZE);
+        } else {
+            state[BLACK].copyTo(buffer, 0);
+            state[WHITE].copyTo(buffer, BITSET_SIZE);
+            write(buffers[chunk], slot * WORDS);
+        }
+    }
+
+
+    /**
+     * Restores the bitboards of a ply.
+     *
+     * @param ply           Ply index
+     * @param state         Bitboards to restore
+     */
+    void load(int ply, Bitset[] state) {
+        final int chunk = ply >>> CHUNK_SHIFT;
+        final int slot = ply & CHUNK_MASK;
+
+        if (direct == false) {
+            final int offset = slot * WORDS;
+            state[BLACK].copyFrom(states[chunk], offset);
+            state[WHITE].copyFrom(states[chunk], offset + BITSET_SIZE);
+        } else {
+            read(buffers[chunk], slot * WORDS);
+            state[BLACK].copyFrom(buffer, 0);
+            state[WHITE].copyFrom(buffer, BITSET_SIZE);
+        }
+    }
+
+
+    /**
+     * Copies the bitboard words of a ply to an array. Black stones
+     * are copied first followed by the white stones.
+     *
+     * @param ply           Ply index
+     * @param words         Destination array
+     * @param offset        Destination index of the first word
+     */
+    void copyPosition(int ply, long[] words, int offset) {
+        final int chunk = ply >>> CHUNK_SHIFT;
+        final int slot = ply & CHUNK_MASK;
+
+        if (direct == false) {
+            System.arraycopy(states[chunk], slot * WORDS, words, offset, WORDS);
+        } else {
+            for (int i = 0; i < WORDS; i++) {
+                words[offset + i] = buffers[chunk].get(slot * WORDS + i);
+            }
+        }
+    }
+
+
+    /**
+     * Hash code stored for a ply.
+     */
+    long hash(int ply) {
+        return hashes[ply >>> CHUNK_SHIFT][ply & CHUNK_MASK];
+    }
+
+
+    /**
+     * Move generation cursor stored for a ply.
+     */
+    int cursor(int ply) {
+        return cursors[ply >>> CHUNK_SHIFT][ply & CHUNK_MASK];
+    }
+
+
+    /**
+     * Ko point stored for a ply.
+     */
+    int kopoint(int ply) {
+        return kopoints[ply >>> CHUNK_SHIFT][ply & CHUNK_MASK];
+    }
+
+
+    /**
+     * Writes the transfer buffer to an off-heap chunk.
+     */
+    private void write(LongBuffer chunk, int offset) {
+        for (int i = 0; i < WORDS; i++) {
+            chunk.put(offset + i, buffer[i]);
+        }
+    }
+
+
+    /**
+     * Reads the transfer buffer from an off-heap chunk.
+     */
+    private void read(LongBuffer chunk, int offset) {
+        for (int i = 0; i < WORDS; i++) {
+            buffer[i] = chunk.get(offset + i);
+        }
+    }
+}
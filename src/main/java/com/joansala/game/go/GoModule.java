@@ -20,14 +20,17 @@ package com.joansala.game.go;
 
 
 import com.google.inject.Provides;
+import com.google.inject.Singleton;
 import picocli.CommandLine.Command;
 
 import com.joansala.cli.*;
 import com.joansala.engine.*;
 import com.joansala.engine.base.BaseModule;
-import com.joansala.engine.mcts.Montecarlo;
 import com.joansala.uci.UCIService;
-import com.joansala.game.go.uci.KomiOption;
+import com.joansala.game.go.cli.*;
+import com.joansala.game.go.engine.GoMontecarlo;
+import com.joansala.game.go.eval.*;
+import com.joansala.game.go.uci.*;
 
 
 /**
@@ -41,7 +44,14 @@ public class GoModule extends BaseModule {
     @Command(
       name = "go",
       version = "1.0.0",
-      description = "Go is an abstract strategy board game"
+      description = "Go is an abstract strategy board game",
+      subcommands = {
+        SelfPlayCommand.class,
+        AnalyzeCommand.class,
+        IndexCommand.class,
+        BenchCommand.class,
+        PerftCommand.class
+      }
     )
     private static class GoCommand extends MainCommand {}
 
@@ -52,7 +62,20 @@ public class GoModule extends BaseModule {
     @Override protected void configure() {
         bind(Game.class).to(GoGame.class);
         bind(Board.class).to(GoBoard.class);
-        bind(Engine.class).to(Montecarlo.class);
+        bind(Engine.class).to(GoMontecarlo.class);
+        bind(Network.class).to(ReferenceNetwork.class);
+    }
+
+
+    /**
+     * Provide a shared evaluator for the search. Only one thread
+     * searches at a time, so positions are not held waiting for a
+     * batch to fill up.
+     */
+    @Provides
+    @Singleton
+    public static Evaluator provideEvaluator(Network network) {
+        return new BatchEvaluator(network, 1, BatchEvaluator.DEFAULT_TIMEOUT);
     }
 
 
@@ -63,6 +86,12 @@ public class GoModule extends BaseModule {
     public static UCIService provideService(Game game, Engine engine) {
         UCIService service = new UCIService(game, engine);
         service.getOptions().put("Komi", new KomiOption());
+        service.getOptions().put("Widening Factor", new WideningFactorOption());
+        service.getOptions().put("Widening Exponent", new WideningExponentOption());
+        service.getOptions().put("Ponder", new PonderOption());
+        service.getOptions().put("Analysis Cache", new CacheSizeOption());
+        service.getOptions().put("Statistics", new StatisticsOption());
+        service.getOptions().put("Warmup Time", new WarmupTimeOption());
         return service;
     }
 
@@ -0,0 +1,163 @@
+package com.joansala.game.go;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.joansala.engine.Game;
+
+
+/**
+ * Counts the move sequences of a game up to a fixed depth.
+ *
+ * Every sequence of legal moves, passes included, that reaches the
+ * given depth or ends the game counts as a leaf. Counts only depend
+ * on the rules, thus they can be used to validate the move generator
+ * and to measure the speed of the move generation.
+ */
+public final class GoPerft {
+
+    /**
+     * Utility class.
+     */
+    private GoPerft() {}
+
+
+    /**
+     * Counts the leaves of a game on the current thread. The game is
+     * restored to its current position afterwards.
+     *
+     * @param game      Game to count
+     * @param depth     Maximum depth
+     * @return          Number of leaves
+     */
+    public static long count(GoGame game, int depth) {
+        game.ensureCapacity(game.length() + depth);
+        game.resetCursor();
+
+        return countLeaves(game, depth);
+    }
+
+
+    /**
+     * Counts the leaves of a game splitting the root moves among the
+     * workers of a pool. Each root move is counted on its own copy of
+     * the game, thus the game itself is not modified.
+     *
+     * @param game      Game to count
+     * @param depth     Maximum depth
+     * @param pool      Fork-join pool
+     * @return          Number of leaves
+     */
+    public static long count(GoGame game, int depth, ForkJoinPool pool) {
+        if (depth == 0 || game.hasEnded()) {
+            return 1L;
+        }
+
+        final GoGame root = game.deepCopy();
+        final List<Subtree> tasks = new ArrayList<>();
+        long leaves = 0L;
+        int move;
+
+        root.resetCursor();
+
+        while ((move = root.nextMove()) != Game.NULL_MOVE) {
+            tasks.add(new Subtree(root, move, depth - 1));
+        }
+
+        for (Subtree task : tasks) {
+            pool.execute(task);
+        }
+
+        for (Subtree task : tasks) {
+            leaves += task.join();
+        }
+
+        return leaves;
+    }
+
+
+    /**
+     * Counts the leaves from the current position of a game.
+     */
+    private static long countLeaves(GoGame game, int depth) {
+        if (depth == 0 || game.hasEnded()) {
+            return 1L;
+        }
+
+        long leaves = 0L;
+        int move;
+
+        while ((move = game.nextMove()) != Game.NULL_MOVE) {
+            final int cursor = game.getCursor();
+            game.makeMove(move);
+            leaves += countLeaves(game, depth - 1);
+            game.unmakeMove();
+            game.setCursor(cursor);
+        }
+
+        return leaves;
+    }
+
+
+    /**
+     * Counts the leaves after a root move on a copy of the game.
+     */
+    private static class Subtree extends RecursiveTask<Long> {
+
+        /** Root position, which must not be modified */
+        private final GoGame root;
+
+        /** Move to perform on the root */
+        private final int move;
+
+        /** Remaining depth after the move */
+        private final int depth;
+
+
+        /**
+         * Creates a new task.
+         *
+         * @param root      Root position
+         * @param move      Move to perform on the root
+         * @param depth     Remaining depth after the move
+         */
+        Subtree(GoGame root, int move, int depth) {
+            this.root = root;
+            this.move = move;
+            this.depth = depth;
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected Long compute() {
+            final GoGame game = root.deepCopy();
+            game.ensureCapacity(game.length() + 1 + depth);
+            game.makeMove(move);
+
+            return count(game, depth);
+        }
+    }
+}
@@ -13,161 +13,180 @@ public final class Point {
         int[] points;
         switch (gameSize) {
             case 9:
-                points = attacks9[point];    
+                points = Attacks9.NEIGHBORS[point];
                 break;
             case 13:
-                points = attacks13[point];    
+                points = Attacks13.NEIGHBORS[point];
                 break;
             default:
-                points = attacks19[point];    
+                points = Attacks19.NEIGHBORS[point];
         }
         return points;
     }
 
-    /** Neighbors of each intersection point */
-    private static int[][] attacks9 = {
-        {1, 9}, {0, 2, 10}, {1, 3, 11}, {2, 4, 12}, {3, 5, 13}, {4, 6, 14}, {5, 7, 15}, {6, 8, 16}, {7, 17},
-        {10, 0, 18}, {9, 11, 1, 19}, {10, 12, 2, 20}, {11, 13, 3, 21}, {12, 14, 4, 22}, {13, 15, 5, 23}, {14, 16, 6, 24}, {15, 17, 7, 25}, {16, 8, 26},
-        {19, 9, 27}, {18, 20, 10, 28}, {19, 21, 11, 29}, {20, 22, 12, 30}, {21, 23, 13, 31}, {22, 24, 14, 32}, {23,25,15,33}, {24,26,16,34}, {25,17,35},
-        {28,18,36}, {27,29,19,37}, {28,30,20,38}, {29,31,21,39}, {30,32,22,40}, {31,33,23,41}, {32,34,24,42}, {33,35,25,43}, {34,26,44},
-        {37,27,45}, {36,38,28,46}, {37,39,29,47}, {38,40,30,48}, {39,41,31,49}, {40,42,32,50}, {41,43,33,51}, {42,44,34,52}, {43,35,53},
-        {46,36,54}, {45,47,37,55}, {46,48,38,56}, {47,49,39,57}, {48,50,40,58}, {49,51,41,59}, {50,52,42,60}, {51,53,43,61}, {52,44,62},
-        {55,45,63},{54,56,46,64},{55,57,47,65},{56,58,48,66},{57,59,49,67},{58,60,50,68},{59,61,51,69},{60,62,52,70},{61,53,71},
-        {64,54,72},{63,65,55,73},{64,66,56,74},{65,67,57,75},{66,68,58,76},{67,69,59,77},{68,70,60,78},{69,71,61,79},{70,62,80},
-        {73, 63}, {72, 74, 64}, {73, 75, 65}, {74, 76, 66}, {75, 77, 67}, {76, 78, 68}, {77, 79, 69}, {78, 80, 70}, {79,71}
-    };
-    
 
+    /**
+     * Neighbors of the 9x9 board, loaded on first use.
+     */
+    private static final class Attacks9 {
+
+        /** Neighbors of each intersection point */
+        static final int[][] NEIGHBORS = {
+            {1, 9}, {0, 2, 10}, {1, 3, 11}, {2, 4, 12}, {3, 5, 13}, {4, 6, 14}, {5, 7, 15}, {6, 8, 16}, {7, 17},
+            {10, 0, 18}, {9, 11, 1, 19}, {10, 12, 2, 20}, {11, 13, 3, 21}, {12, 14, 4, 22}, {13, 15, 5, 23}, {14, 16, 6, 24}, {15, 17, 7, 25}, {16, 8, 26},
+            {19, 9, 27}, {18, 20, 10, 28}, {19, 21, 11, 29}, {20, 22, 12, 30}, {21, 23, 13, 31}, {22, 24, 14, 32}, {23,25,15,33}, {24,26,16,34}, {25,17,35},
+            {28,18,36}, {27,29,19,37}, {28,30,20,38}, {29,31,21,39}, {30,32,22,40}, {31,33,23,41}, {32,34,24,42}, {33,35,25,43}, {34,26,44},
+            {37,27,45}, {36,38,28,46}, {37,39,29,47}, {38,40,30,48}, {39,41,31,49}, {40,42,32,50}, {41,43,33,51}, {42,44,34,52}, {43,35,53},
+            {46,36,54}, {45,47,37,55}, {46,48,38,56}, {47,49,39,57}, {48,50,40,58}, {49,51,41,59}, {50,52,42,60}, {51,53,43,61}, {52,44,62},
+            {55,45,63},{54,56,46,64},{55,57,47,65},{56,58,48,66},{57,59,49,67},{58,60,50,68},{59,61,51,69},{60,62,52,70},{61,53,71},
+            {64,54,72},{63,65,55,73},{64,66,56,74},{65,67,57,75},{66,68,58,76},{67,69,59,77},{68,70,60,78},{69,71,61,79},{70,62,80},
+            {73, 63}, {72, 74, 64}, {73, 75, 65}, {74, 76, 66}, {75, 77, 67}, {76, 78, 68}, {77, 79, 69}, {78, 80, 70}, {79,71}
+        };
+    }
+
+
+    /**
+     * Neighbors of the 13x13 board, loaded on first use.
+     */
+    private static final class Attacks13 {
+
+        /** Neighbors of each intersection point */
+        static final int[][] NEIGHBORS = {
+            {1, 13}, {0, 2, 14}, {1, 3, 15}, {2, 4, 16}, {3, 5, 17}, {4, 6, 18}, {5, 7, 19}, {6, 8, 20}, {7, 9, 21}, {8, 10, 22}, {9, 11, 23}, {10, 12, 24}, {11, 25},
+            {14,0,26},{13,15,1,27},{14,16,2,28},{15,17,3,29},{16,18,4,30},{17,19,5,31},{18,20,6,32},{19,21,7,33},{20,22,8,34},{21,23,9,35},{22,24,10,36},{23,25,11,37},{24,12,38},
+            {27,13,39},{26,28,14,40},{27,29,15,41},{28,30,16,42},{29,31,17,43},{30,32,18,44},{31,33,19,45},{32,34,20,46},{33,35,21,47},{34,36,22,48},{35,37,23,49},{36,38,24,50},{37,25,51},
+            {40,26,52},{39,41,27,53},{40,42,28,54},{41,43,29,55},{42,44,30,56},{43,45,31,57},{44,46,32,58},{45,47,33,59},{46,48,34,60},{47,49,35,61},{48,50,36,62},{49,51,37,63},{50,38,64},
+            {53,39,65},{52,54,40,66},{53,55,41,67},{54,56,42,68},{55,57,43,69},{56,58,44,70},{57,59,45,71},{58,60,46,72},{59,61,47,73},{60,62,48,74},{61,63,49,75},{62,64,50,76},{63,51,77},
+            {66,52,78},{65,67,53,79},{66,68,54,80},{67,69,55,81},{68,70,56,82},{69,71,57,83},{70,72,58,84},{71,73,59,85},{72,74,60,86},{73,75,61,87},{74,76,62,88},{75,77,63,89},{76,64,90},
+            {79,65,91},{78,80,66,92},{79,81,67,93},{80,82,68,94},{81,83,69,95},{82,84,70,96},{83,85,71,97},{84,86,72,98},{85,87,73,99},{86,88,74,100},{87,89,75,101},{88,90,76,102},{89,77,103},
+            {92,78,104},{91,93,79,105},{92,94,80,106},{93,95,81,107},{94,96,82,108},{95,97,83,109},{96,98,84,110},{97,99,85,111},{98,100,86,112},{99,101,87,113},{100,102,88,114},{101,103,89,115},{102,90,116},
+            {105,91,117},{104,106,92,118},{105,107,93,119},{106,108,94,120},{107,109,95,121},{108,110,96,122},{109,111,97,123},{110,112,98,124},{111,113,99,125},{112,114,100,126},{113,115,101,127},{114,116,102,128},{115,103,129},
+            {118,104,130},{117,119,105,131},{118,120,106,132},{119,121,107,133},{120,122,108,134},{121,123,109,135},{122,124,110,136},{123,125,111,137},{124,126,112,138},{125,127,113,139},{126,128,114,140},{127,129,115,141},{128,116,142},
+            {131,117,143},{130,132,118,144},{131,133,119,145},{132,134,120,146},{133,135,121,147},{134,136,122,148},{135,137,123,149},{136,138,124,150},{137,139,125,151},{138,140,126,152},{139,141,127,153},{140,142,128,154},{141,129,155},
+            {144,130,156},{143,145,131,157},{144,146,132,158},{145,147,133,159},{146,148,134,160},{147,149,135,161},{148,150,136,162},{149,151,137,163},{150,152,138,164},{151,153,139,165},{152,154,140,166},{153,155,141,167},{154,142,168},
+            {157,143},{156,158,144},{157,159,145},{158,160,146},{159,161,147},{160,162,148},{161,163,149},{162,164,150},{163,165,151},{164,166,152},{165,167,153},{166,168,154},{167,155}
+        };
+    }
 
-    /** Neighbors of each intersection point */
-    private static int[][] attacks13 = {
-        {1, 13}, {0, 2, 14}, {1, 3, 15}, {2, 4, 16}, {3, 5, 17}, {4, 6, 18}, {5, 7, 19}, {6, 8, 20}, {7, 9, 21}, {8, 10, 22}, {9, 11, 23}, {10, 12, 24}, {11, 25},
-        {14,0,26},{13,15,1,27},{14,16,2,28},{15,17,3,29},{16,18,4,30},{17,19,5,31},{18,20,6,32},{19,21,7,33},{20,22,8,34},{21,23,9,35},{22,24,10,36},{23,25,11,37},{24,12,38},
-        {27,13,39},{26,28,14,40},{27,29,15,41},{28,30,16,42},{29,31,17,43},{30,32,18,44},{31,33,19,45},{32,34,20,46},{33,35,21,47},{34,36,22,48},{35,37,23,49},{36,38,24,50},{37,25,51},
-        {40,26,52},{39,41,27,53},{40,42,28,54},{41,43,29,55},{42,44,30,56},{43,45,31,57},{44,46,32,58},{45,47,33,59},{46,48,34,60},{47,49,35,61},{48,50,36,62},{49,51,37,63},{50,38,64},
-        {53,39,65},{52,54,40,66},{53,55,41,67},{54,56,42,68},{55,57,43,69},{56,58,44,70},{57,59,45,71},{58,60,46,72},{59,61,47,73},{60,62,48,74},{61,63,49,75},{62,64,50,76},{63,51,77},
-        {66,52,78},{65,67,53,79},{66,68,54,80},{67,69,55,81},{68,70,56,82},{69,71,57,83},{70,72,58,84},{71,73,59,85},{72,74,60,86},{73,75,61,87},{74,76,62,88},{75,77,63,89},{76,64,90},
-        {79,65,91},{78,80,66,92},{79,81,67,93},{80,82,68,94},{81,83,69,95},{82,84,70,96},{83,85,71,97},{84,86,72,98},{85,87,73,99},{86,88,74,100},{87,89,75,101},{88,90,76,102},{89,77,103},
-        {92,78,104},{91,93,79,105},{92,94,80,106},{93,95,81,107},{94,96,82,108},{95,97,83,109},{96,98,84,110},{97,99,85,111},{98,100,86,112},{99,101,87,113},{100,102,88,114},{101,103,89,115},{102,90,116},
-        {105,91,117},{104,106,92,118},{105,107,93,119},{106,108,94,120},{107,109,95,121},{108,110,96,122},{109,111,97,123},{110,112,98,124},{111,113,99,125},{112,114,100,126},{113,115,101,127},{114,116,102,128},{115,103,129},
-        {118,104,130},{117,119,105,131},{118,120,106,132},{119,121,107,133},{120,122,108,134},{121,123,109,135},{122,124,110,136},{123,125,111,137},{124,126,112,138},{125,127,113,139},{126,128,114,140},{127,129,115,141},{128,116,142},
-        {131,117,143},{130,132,118,144},{131,133,119,145},{132,134,120,146},{133,135,121,147},{134,136,122,148},{135,137,123,149},{136,138,124,150},{137,139,125,151},{138,140,126,152},{139,141,127,153},{140,142,128,154},{141,129,155},
-        {144,130,156},{143,145,131,157},{144,146,132,158},{145,147,133,159},{146,148,134,160},{147,149,135,161},{148,150,136,162},{149,151,137,163},{150,152,138,164},{151,153,139,165},{152,154,140,166},{153,155,141,167},{154,142,168},
-        {157,143},{156,158,144},{157,159,145},{158,160,146},{159,161,147},{160,162,148},{161,163,149},{162,164,150},{163,165,151},{164,166,152},{165,167,153},{166,168,154},{167,155}
-    };
 
-    /** Neighbors of each intersection point */
-    private static int[][] attacks19 = {
-        {1, 19}, {0, 2, 20}, {1, 3, 21}, {2, 4, 22}, {3, 5, 23}, {4, 6, 24},
-        {5, 7, 25}, {6, 8, 26}, {7, 9, 27}, {8, 10, 28}, {9, 11, 29},
-        {10,12, 30}, {11, 13, 31}, {12, 14, 32}, {13, 15, 33}, {14, 16, 34},
-        {15, 17, 35}, {16, 18, 36}, {17, 37}, {20, 0, 38}, {19, 21, 1, 39},
-        {20, 22, 2, 40}, {21, 23, 3, 41}, {22, 24, 4, 42}, {23, 25, 5, 43},
-        {24, 26, 6, 44}, {25, 27, 7, 45}, {26, 28, 8, 46}, {27, 29, 9, 47},
-        {28, 30, 10, 48}, {29, 31, 11, 49}, {30, 32, 12, 50}, {31, 33, 13, 51},
-        {32, 34, 14, 52}, {33, 35, 15, 53}, {34, 36, 16, 54}, {35, 37, 17, 55},
-        {36, 18, 56}, {39, 19, 57}, {38, 40, 20, 58}, {39, 41, 21, 59},
-        {40, 42, 22, 60}, {41, 43, 23, 61}, {42, 44, 24, 62}, {43, 45, 25, 63},
-        {44, 46, 26, 64}, {45, 47, 27, 65}, {46, 48, 28, 66}, {47, 49, 29, 67},
-        {48, 50, 30, 68}, {49, 51, 31, 69}, {50, 52, 32, 70}, {51, 53, 33, 71},
-        {52, 54, 34, 72}, {53, 55, 35, 73}, {54, 56, 36, 74}, {55, 37, 75},
-        {58, 38, 76}, {57, 59, 39, 77}, {58, 60, 40, 78}, {59, 61, 41, 79},
-        {60, 62, 42, 80}, {61, 63, 43, 81}, {62, 64, 44, 82}, {63, 65, 45, 83},
-        {64, 66, 46, 84}, {65, 67, 47, 85}, {66, 68, 48, 86}, {67, 69, 49, 87},
-        {68, 70, 50, 88}, {69, 71, 51, 89}, {70, 72, 52, 90}, {71, 73, 53, 91},
-        {72, 74, 54, 92}, {73, 75, 55, 93}, {74, 56, 94}, {77, 57, 95},
-        {76, 78, 58, 96}, {77, 79, 59, 97}, {78, 80, 60, 98}, {79, 81, 61, 99},
-        {80, 82, 62, 100}, {81, 83, 63, 101}, {82, 84, 64, 102},
-        {83, 85, 65, 103}, {84, 86, 66, 104}, {85, 87, 67, 105},
-        {86, 88, 68, 106}, {87, 89, 69, 107}, {88, 90, 70, 108},
-        {89, 91, 71, 109}, {90, 92, 72, 110}, {91, 93, 73, 111},
-        {92, 94, 74, 112}, {93, 75, 113}, {96, 76, 114}, {95, 97, 77, 115},
-        {96, 98, 78, 116}, {97, 99, 79, 117}, {98, 100, 80, 118},
-        {99, 101, 81, 119}, {100, 102, 82, 120}, {101, 103, 83, 121},
-        {102, 104, 84, 122}, {103, 105, 85, 123}, {104, 106, 86, 124},
-        {105, 107, 87, 125}, {106, 108, 88, 126}, {107, 109, 89, 127},
-        {108, 110, 90, 128}, {109, 111, 91, 129}, {110, 112, 92, 130},
-        {111, 113, 93, 131}, {112, 94, 132}, {115, 95, 133},
-        {114, 116, 96, 134}, {115, 117, 97, 135}, {116, 118, 98, 136},
-        {117, 119, 99, 137}, {118, 120, 100, 138}, {119, 121, 101, 139},
-        {120, 122, 102, 140}, {121, 123, 103, 141}, {122, 124, 104, 142},
-        {123, 125, 105, 143}, {124, 126, 106, 144}, {125, 127, 107, 145},
-        {126, 128, 108, 146}, {127, 129, 109, 147}, {128, 130, 110, 148},
-        {129, 131, 111, 149}, {130, 132, 112, 150}, {131, 113, 151},
-        {134, 114, 152}, {133, 135, 115, 153}, {134, 136, 116, 154},
-        {135, 137, 117, 155}, {136, 138, 118, 156}, {137, 139, 119, 157},
-        {138, 140, 120, 158}, {139, 141, 121, 159}, {140, 142, 122, 160},
-        {141, 143, 123, 161}, {142, 144, 124, 162}, {143, 145, 125, 163},
-        {144, 146, 126, 164}, {145, 147, 127, 165}, {146, 148, 128, 166},
-        {147, 149, 129, 167}, {148, 150, 130, 168}, {149, 151, 131, 169},
-        {150, 132, 170}, {153, 133, 171}, {152, 154, 134, 172},
-        {153, 155, 135, 173}, {154, 156, 136, 174}, {155, 157, 137, 175},
-        {156, 158, 138, 176}, {157, 159, 139, 177}, {158, 160, 140, 178},
-        {159, 161, 141, 179}, {160, 162, 142, 180}, {161, 163, 143, 181},
-        {162, 164, 144, 182}, {163, 165, 145, 183}, {164, 166, 146, 184},
-        {165, 167, 147, 185}, {166, 168, 148, 186}, {167, 169, 149, 187},
-        {168, 170, 150, 188}, {169, 151, 189}, {172, 152, 190},
-        {171, 173, 153, 191}, {172, 174, 154, 192}, {173, 175, 155, 193},
-        {174, 176, 156, 194}, {175, 177, 157, 195}, {176, 178, 158, 196},
-        {177, 179, 159, 197}, {178, 180, 160, 198}, {179, 181, 161, 199},
-        {180, 182, 162, 200}, {181, 183, 163, 201}, {182, 184, 164, 202},
-        {183, 185, 165, 203}, {184, 186, 166, 204}, {185, 187, 167, 205},
-        {186, 188, 168, 206}, {187, 189, 169, 207}, {188, 170, 208},
-        {191, 171, 209}, {190, 192, 172, 210}, {191, 193, 173, 211},
-        {192, 194, 174, 212}, {193, 195, 175, 213}, {194, 196, 176, 214},
-        {195, 197, 177, 215}, {196, 198, 178, 216}, {197, 199, 179, 217},
-        {198, 200, 180, 218}, {199, 201, 181, 219}, {200, 202, 182, 220},
-        {201, 203, 183, 221}, {202, 204, 184, 222}, {203, 205, 185, 223},
-        {204, 206, 186, 224}, {205, 207, 187, 225}, {206, 208, 188, 226},
-        {207, 189, 227}, {210, 190, 228}, {209, 211, 191, 229},
-        {210, 212, 192, 230}, {211, 213, 193, 231}, {212, 214, 194, 232},
-        {213, 215, 195, 233}, {214, 216, 196, 234}, {215, 217, 197, 235},
-        {216, 218, 198, 236}, {217, 219, 199, 237}, {218, 220, 200, 238},
-        {219, 221, 201, 239}, {220, 222, 202, 240}, {221, 223, 203, 241},
-        {222, 224, 204, 242}, {223, 225, 205, 243}, {224, 226, 206, 244},
-        {225, 227, 207, 245}, {226, 208, 246}, {229, 209, 247},
-        {228, 230, 210, 248}, {229, 231, 211, 249}, {230, 232, 212, 250},
-        {231, 233, 213, 251}, {232, 234, 214, 252}, {233, 235, 215, 253},
-        {234, 236, 216, 254}, {235, 237, 217, 255}, {236, 238, 218, 256},
-        {237, 239, 219, 257}, {238, 240, 220, 258}, {239, 241, 221, 259},
-        {240, 242, 222, 260}, {241, 243, 223, 261}, {242, 244, 224, 262},
-        {243, 245, 225, 263}, {244, 246, 226, 264}, {245, 227, 265},
-        {248, 228, 266}, {247, 249, 229, 267}, {248, 250, 230, 268},
-        {249, 251, 231, 269}, {250, 252, 232, 270}, {251, 253, 233, 271},
-        {252, 254, 234, 272}, {253, 255, 235, 273}, {254, 256, 236, 274},
-        {255, 257, 237, 275}, {256, 258, 238, 276}, {257, 259, 239, 277},
-        {258, 260, 240, 278}, {259, 261, 241, 279}, {260, 262, 242, 280},
-        {261, 263, 243, 281}, {262, 264, 244, 282}, {263, 265, 245, 283},
-        {264, 246, 284}, {267, 247, 285}, {266, 268, 248, 286},
-        {267, 269, 249, 287}, {268, 270, 250, 288}, {269, 271, 251, 289},
-        {270, 272, 252, 290}, {271, 273, 253, 291}, {272, 274, 254, 292},
-        {273, 275, 255, 293}, {274, 276, 256, 294}, {275, 277, 257, 295},
-        {276, 278, 258, 296}, {277, 279, 259, 297}, {278, 280, 260, 298},
-        {279, 281, 261, 299}, {280, 282, 262, 300}, {281, 283, 263, 301},
-        {282, 284, 264, 302}, {283, 265, 303}, {286, 266, 304},
-        {285, 287, 267, 305}, {286, 288, 268, 306}, {287, 289, 269, 307},
-        {288, 290, 270, 308}, {289, 291, 271, 309}, {290, 292, 272, 310},
-        {291, 293, 273, 311}, {292, 294, 274, 312}, {293, 295, 275, 313},
-        {294, 296, 276, 314}, {295, 297, 277, 315}, {296, 298, 278, 316},
-        {297, 299, 279, 317}, {298, 300, 280, 318}, {299, 301, 281, 319},
-        {300, 302, 282, 320}, {301, 303, 283, 321}, {302, 284, 322},
-        {305, 285, 323}, {304, 306, 286, 324}, {305, 307, 287, 325},
-        {306, 308, 288, 326}, {307, 309, 289, 327}, {308, 310, 290, 328},
-        {309, 311, 291, 329}, {310, 312, 292, 330}, {311, 313, 293, 331},
-        {312, 314, 294, 332}, {313, 315, 295, 333}, {314, 316, 296, 334},
-        {315, 317, 297, 335}, {316, 318, 298, 336}, {317, 319, 299, 337},
-        {318, 320, 300, 338}, {319, 321, 301, 339}, {320, 322, 302, 340},
-        {321, 303, 341}, {324, 304, 342}, {323, 325, 305, 343},
-        {324, 326, 306, 344}, {325, 327, 307, 345}, {326, 328, 308, 346},
-        {327, 329, 309, 347}, {328, 330, 310, 348}, {329, 331, 311, 349},
-        {330, 332, 312, 350}, {331, 333, 313, 351}, {332, 334, 314, 352},
-        {333, 335, 315, 353}, {334, 336, 316, 354}, {335, 337, 317, 355},
-        {336, 338, 318, 356}, {337, 339, 319, 357}, {338, 340, 320, 358},
-        {339, 341, 321, 359}, {340, 322, 360}, {343, 323}, {342, 344, 324},
-        {343, 345, 325}, {344, 346, 326}, {345, 347, 327}, {346, 348, 328},
-        {347, 349, 329}, {348, 350, 330}, {349, 351, 331}, {350, 352, 332},
-        {351, 353, 333}, {352, 354, 334}, {353, 355, 335}, {354, 356, 336},
-        {355, 357, 337}, {356, 358, 338}, {357, 359, 339}, {358, 360, 340},
-        {359, 341}
-    };
+    /**
+     * Neighbors of the 19x19 board, loaded on first use.
+     */
+    private static final class Attacks19 {
+
+        /** Neighbors of each intersection point */
+        static final int[][] NEIGHBORS = {
+            {1, 19}, {0, 2, 20}, {1, 3, 21}, {2, 4, 22}, {3, 5, 23}, {4, 6, 24},
+            {5, 7, 25}, {6, 8, 26}, {7, 9, 27}, {8, 10, 28}, {9, 11, 29},
+            {10,12, 30}, {11, 13, 31}, {12, 14, 32}, {13, 15, 33}, {14, 16, 34},
+            {15, 17, 35}, {16, 18, 36}, {17, 37}, {20, 0, 38}, {19, 21, 1, 39},
+            {20, 22, 2, 40}, {21, 23, 3, 41}, {22, 24, 4, 42}, {23, 25, 5, 43},
+            {24, 26, 6, 44}, {25, 27, 7, 45}, {26, 28, 8, 46}, {27, 29, 9, 47},
+            {28, 30, 10, 48}, {29, 31, 11, 49}, {30, 32, 12, 50}, {31, 33, 13, 51},
+            {32, 34, 14, 52}, {33, 35, 15, 53}, {34, 36, 16, 54}, {35, 37, 17, 55},
+            {36, 18, 56}, {39, 19, 57}, {38, 40, 20, 58}, {39, 41, 21, 59},
+            {40, 42, 22, 60}, {41, 43, 23, 61}, {42, 44, 24, 62}, {43, 45, 25, 63},
+            {44, 46, 26, 64}, {45, 47, 27, 65}, {46, 48, 28, 66}, {47, 49, 29, 67},
+            {48, 50, 30, 68}, {49, 51, 31, 69}, {50, 52, 32, 70}, {51, 53, 33, 71},
+            {52, 54, 34, 72}, {53, 55, 35, 73}, {54, 56, 36, 74}, {55, 37, 75},
+            {58, 38, 76}, {57, 59, 39, 77}, {58, 60, 40, 78}, {59, 61, 41, 79},
+            {60, 62, 42, 80}, {61, 63, 43, 81}, {62, 64, 44, 82}, {63, 65, 45, 83},
+            {64, 66, 46, 84}, {65, 67, 47, 85}, {66, 68, 48, 86}, {67, 69, 49, 87},
+            {68, 70, 50, 88}, {69, 71, 51, 89}, {70, 72, 52, 90}, {71, 73, 53, 91},
+            {72, 74, 54, 92}, {73, 75, 55, 93}, {74, 56, 94}, {77, 57, 95},
+            {76, 78, 58, 96}, {77, 79, 59, 97}, {78, 80, 60, 98}, {79, 81, 61, 99},
+            {80, 82, 62, 100}, {81, 83, 63, 101}, {82, 84, 64, 102},
+            {83, 85, 65, 103}, {84, 86, 66, 104}, {85, 87, 67, 105},
+            {86, 88, 68, 106}, {87, 89, 69, 107}, {88, 90, 70, 108},
+            {89, 91, 71, 109}, {90, 92, 72, 110}, {91, 93, 73, 111},
+            {92, 94, 74, 112}, {93, 75, 113}, {96, 76, 114}, {95, 97, 77, 115},
+            {96, 98, 78, 116}, {97, 99, 79, 117}, {98, 100, 80, 118},
+            {99, 101, 81, 119}, {100, 102, 82, 120}, {101, 103, 83, 121},
+            {102, 104, 84, 122}, {103, 105, 85, 123}, {104, 106, 86, 124},
+            {105, 107, 87, 125}, {106, 108, 88, 126}, {107, 109, 89, 127},
+            {108, 110, 90, 128}, {109, 111, 91, 129}, {110, 112, 92, 130},
+            {111, 113, 93, 131}, {112, 94, 132}, {115, 95, 133},
+            {114, 116, 96, 134}, {115, 117, 97, 135}, {116, 118, 98, 136},
+            {117, 119, 99, 137}, {118, 120, 100, 138}, {119, 121, 101, 139},
+            {120, 122, 102, 140}, {121, 123, 103, 141}, {122, 124, 104, 142},
+            {123, 125, 105, 143}, {124, 126, 106, 144}, {125, 127, 107, 145},
+            {126, 128, 108, 146}, {127, 129, 109, 147}, {128, 130, 110, 148},
+            {129, 131, 111, 149}, {130, 132, 112, 150}, {131, 113, 151},
+            {134, 114, 152}, {133, 135, 115, 153}, {134, 136, 116, 154},
+            {135, 137, 117, 155}, {136, 138, 118, 156}, {137, 139, 119, 157},
+            {138, 140, 120, 158}, {139, 141, 121, 159}, {140, 142, 122, 160},
+            {141, 143, 123, 161}, {142, 144, 124, 162}, {143, 145, 125, 163},
+            {144, 146, 126, 164}, {145, 147, 127, 165}, {146, 148, 128, 166},
+            {147, 149, 129, 167}, {148, 150, 130, 168}, {149, 151, 131, 169},
+            {150, 132, 170}, {153, 133, 171}, {152, 154, 134, 172},
+            {153, 155, 135, 173}, {154, 156, 136, 174}, {155, 157, 137, 175},
+            {156, 158, 138, 176}, {157, 159, 139, 177}, {158, 160, 140, 178},
+            {159, 161, 141, 179}, {160, 162, 142, 180}, {161, 163, 143, 181},
+            {162, 164, 144, 182}, {163, 165, 145, 183}, {164, 166, 146, 184},
+            {165, 167, 147, 185}, {166, 168, 148, 186}, {167, 169, 149, 187},
+            {168, 170, 150, 188}, {169, 151, 189}, {172, 152, 190},
+            {171, 173, 153, 191}, {172, 174, 154, 192}, {173, 175, 155, 193},
+            {174, 176, 156, 194}, {175, 177, 157, 195}, {176, 178, 158, 196},
+            {177, 179, 159, 197}, {178, 180, 160, 198}, {179, 181, 161, 199},
+            {180, 182, 162, 200}, {181, 183, 163, 201}, {182, 184, 164, 202},
+            {183, 185, 165, 203}, {184, 186, 166, 204}, {185, 187, 167, 205},
+            {186, 188, 168, 206}, {187, 189, 169, 207}, {188, 170, 208},
+            {191, 171, 209}, {190, 192, 172, 210}, {191, 193, 173, 211},
+            {192, 194, 174, 212}, {193, 195, 175, 213}, {194, 196, 176, 214},
+            {195, 197, 177, 215}, {196, 198, 178, 216}, {197, 199, 179, 217},
+            {198, 200, 180, 218}, {199, 201, 181, 219}, {200, 202, 182, 220},
+            {201, 203, 183, 221}, {202, 204, 184, 222}, {203, 205, 185, 223},
+            {204, 206, 186, 224}, {205, 207, 187, 225}, {206, 208, 188, 226},
+            {207, 189, 227}, {210, 190, 228}, {209, 211, 191, 229},
+            {210, 212, 192, 230}, {211, 213, 193, 231}, {212, 214, 194, 232},
+            {213, 215, 195, 233}, {214, 216, 196, 234}, {215, 217, 197, 235},
+            {216, 218, 198, 236}, {217, 219, 199, 237}, {218, 220, 200, 238},
+            {219, 221, 201, 239}, {220, 222, 202, 240}, {221, 223, 203, 241},
+            {222, 224, 204, 242}, {223, 225, 205, 243}, {224, 226, 206, 244},
+            {225, 227, 207, 245}, {226, 208, 246}, {229, 209, 247},
+            {228, 230, 210, 248}, {229, 231, 211, 249}, {230, 232, 212, 250},
+            {231, 233, 213, 251}, {232, 234, 214, 252}, {233, 235, 215, 253},
+            {234, 236, 216, 254}, {235, 237, 217, 255}, {236, 238, 218, 256},
+            {237, 239, 219, 257}, {238, 240, 220, 258}, {239, 241, 221, 259},
+            {240, 242, 222, 260}, {241, 243, 223, 261}, {242, 244, 224, 262},
+            {243, 245, 225, 263}, {244, 246, 226, 264}, {245, 227, 265},
+            {248, 228, 266}, {247, 249, 229, 267}, {248, 250, 230, 268},
+            {249, 251, 231, 269}, {250, 252, 232, 270}, {251, 253, 233, 271},
+            {252, 254, 234, 272}, {253, 255, 235, 273}, {254, 256, 236, 274},
+            {255, 257, 237, 275}, {256, 258, 238, 276}, {257, 259, 239, 277},
+            {258, 260, 240, 278}, {259, 261, 241, 279}, {260, 262, 242, 280},
+            {261, 263, 243, 281}, {262, 264, 244, 282}, {263, 265, 245, 283},
+            {264, 246, 284}, {267, 247, 285}, {266, 268, 248, 286},
+            {267, 269, 249, 287}, {268, 270, 250, 288}, {269, 271, 251, 289},
+            {270, 272, 252, 290}, {271, 273, 253, 291}, {272, 274, 254, 292},
+            {273, 275, 255, 293}, {274, 276, 256, 294}, {275, 277, 257, 295},
+            {276, 278, 258, 296}, {277, 279, 259, 297}, {278, 280, 260, 298},
+            {279, 281, 261, 299}, {280, 282, 262, 300}, {281, 283, 263, 301},
+            {282, 284, 264, 302}, {283, 265, 303}, {286, 266, 304},
+            {285, 287, 267, 305}, {286, 288, 268, 306}, {287, 289, 269, 307},
+            {288, 290, 270, 308}, {289, 291, 271, 309}, {290, 292, 272, 310},
+            {291, 293, 273, 311}, {292, 294, 274, 312}, {293, 295, 275, 313},
+            {294, 296, 276, 314}, {295, 297, 277, 315}, {296, 298, 278, 316},
+            {297, 299, 279, 317}, {298, 300, 280, 318}, {299, 301, 281, 319},
+            {300, 302, 282, 320}, {301, 303, 283, 321}, {302, 284, 322},
+            {305, 285, 323}, {304, 306, 286, 324}, {305, 307, 287, 325},
+            {306, 308, 288, 326}, {307, 309, 289, 327}, {308, 310, 290, 328},
+            {309, 311, 291, 329}, {310, 312, 292, 330}, {311, 313, 293, 331},
+            {312, 314, 294, 332}, {313, 315, 295, 333}, {314, 316, 296, 334},
+            {315, 317, 297, 335}, {316, 318, 298, 336}, {317, 319, 299, 337},
+            {318, 320, 300, 338}, {319, 321, 301, 339}, {320, 322, 302, 340},
+            {321, 303, 341}, {324, 304, 342}, {323, 325, 305, 343},
+            {324, 326, 306, 344}, {325, 327, 307, 345}, {326, 328, 308, 346},
+            {327, 329, 309, 347}, {328, 330, 310, 348}, {329, 331, 311, 349},
+            {330, 332, 312, 350}, {331, 333, 313, 351}, {332, 334, 314, 352},
+            {333, 335, 315, 353}, {334, 336, 316, 354}, {335, 337, 317, 355},
+            {336, 338, 318, 356}, {337, 339, 319, 357}, {338, 340, 320, 358},
+            {339, 341, 321, 359}, {340, 322, 360}, {343, 323}, {342, 344, 324},
+            {343, 345, 325}, {344, 346, 326}, {345, 347, 327}, {346, 348, 328},
+            {347, 349, 329}, {348, 350, 330}, {349, 351, 331}, {350, 352, 332},
+            {351, 353, 333}, {352, 354, 334}, {353, 355, 335}, {354, 356, 336},
+            {355, 357, 337}, {356, 358, 338}, {357, 359, 339}, {358, 360, 340},
+            {359, 341}
+        };
+    }
 }
@@ -0,0 +1,277 @@
+package com.joansala.game.go.cli;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import com.joansala.engine.Game;
+import com.joansala.engine.Report;
+import com.joansala.game.go.GoBoard;
+import com.joansala.game.go.GoGame;
+import com.joansala.game.go.engine.GoMontecarlo;
+import com.joansala.game.go.io.SGFReader;
+
+
+/**
+ * Analyzes every position of the games of an SGF collection.
+ *
+ * Games are distributed among the workers of a work-stealing pool,
+ * each of them with its own engine, and every position is searched
+ * for a fixed time. Results are written to the output file in the
+ * order of the collection, one line for each position with the game
+ * number, ply, best move, score and win rate of the player to move.
+ *
+ * After each game is written a checkpoint file records the number of
+ * games and bytes written. If the command is run again with the same
+ * output, the output is truncated to the checkpoint and the analysis
+ * resumes on the first game that was not written.
+ */
+@Command(
+  name = "analyze",
+  description = "Analyzes the positions of an SGF collection",
+  mixinStandardHelpOptions = true
+)
+public class AnalyzeCommand implements Callable<Integer> {
+
+    /** Maximum pending games for each worker */
+    private static final int PENDING_GAMES = 4;
+
+    @Option(
+      names = "--input",
+      description = "SGF collection to analyze",
+      required = true
+    )
+    private Path input;
+
+    @Option(
+      names = "--output",
+      description = "Analysis output file",
+      required = true
+    )
+    private Path output;
+
+    @Option(
+      names = "--threads",
+      description = "Number of workers"
+    )
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Option(
+      names = "--movetime",
+      description = "Milliseconds per position"
+    )
+    private long moveTime = 1000;
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer call() throws Exception {
+        final Path checkpoint = checkpointPath();
+        final long[] state = readCheckpoint(checkpoint);
+        final long skipped = state[0];
+        long written = state[1];
+        long games = 0L;
+
+        final ExecutorService executor = Executors.newWorkStealingPool(threads);
+        final ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+        final ThreadLocal<Analyzer> analyzers =
+            ThreadLocal.withInitial(Analyzer::new);
+
+        try (SGFReader reader = SGFReader.map(input);
+             FileChannel channel = FileChannel.open(output,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.truncate(written);
+            channel.position(written);
+
+            GoGame game;
+
+            while ((game = reader.next()) != null) {
+                if (games++ < skipped) {
+                    continue;
+                }
+
+                final long number = games;
+                final GoBoard board = (GoBoard) game.getBoard();
+                final Double komi = game.getKomiScore();
+                final int[] moves = game.moves();
+
+                pending.add(executor.submit(() -> analyzers.get()
+                    .analyze(number, board, komi, moves)));
+
+                if (pending.size() >= PENDING_GAMES * threads) {
+                    written += write(channel, pending.poll().get());
+                    writeCheckpoint(checkpoint, number - pending.size(), written);
+                }
+            }
+
+            while (!pending.isEmpty()) {
+                written += write(channel, pending.poll().get());
+                writeCheckpoint(checkpoint, games - pending.size(), written);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return 0;
+    }
+
+
+    /**
+     * Path of the checkpoint file of the output.
+     */
+    private Path checkpointPath() {
+        return output.resolveSibling(output.getFileName() + ".checkpoint");
+    }
+
+
+    /**
+     * Writes an analysis block to the output channel.
+     *
+     * @return          Number of bytes written
+     */
+    private static long write(FileChannel channel, byte[] block) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(block);
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        return block.length;
+    }
+
+
+    /**
+     * Reads the games and bytes written on a previous run.
+     *
+     * @return          Games and bytes written or zeros
+     */
+    private static long[] readCheckpoint(Path path) throws IOException {
+        final long[] state = { 0L, 0L };
+
+        if (Files.exists(path)) {
+            final String[] fields = Files.readString(path).trim().split(" ");
+            state[0] = Long.parseLong(fields[0]);
+            state[1] = Long.parseLong(fields[1]);
+        }
+
+        return state;
+    }
+
+
+    /**
+     * Atomically replaces the checkpoint file.
+     *
+     * @param games     Number of games written
+     * @param written   Number of bytes written
+     */
+    private static void writeCheckpoint(Path path, long games, long written) throws IOException {
+        final Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.writeString(temp, games + " " + written + "\n");
+        Files.move(temp, path,
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    }
+
+
+    /**
+     * Analyzes games on a worker thread.
+     */
+    private class Analyzer {
+
+        /** Engine of this worker */
+        final GoMontecarlo engine = new GoMontecarlo();
+
+        /** Score of the last search */
+        int score = 0;
+
+
+        /**
+         * Creates a new analyzer.
+         */
+        Analyzer() {
+            engine.setMoveTime(moveTime);
+            engine.setTimeManagement(false);
+            engine.attachConsumer(this::accept);
+        }
+
+
+        /**
+         * Receives the search reports of the engine.
+         */
+        void accept(Report report) {
+            score = report.getScore();
+        }
+
+
+        /**
+         * Analyzes each position of a game.
+         *
+         * @param number    Game number on the collection
+         * @param board     Start board of the game
+         * @param komi      Komi of the game
+         * @param moves     Moves of the game
+         * @return          Analysis lines of the game
+         */
+        byte[] analyze(long number, GoBoard board, Double komi, int[] moves) {
+            final GoGame game = new GoGame(2 + moves.length, board.gameSize());
+            final StringBuilder lines = new StringBuilder();
+            final int maxScore = engine.getInfinity();
+
+            game.setBoard(board);
+            game.setKomiScore(komi);
+            engine.newMatch();
+
+            for (int ply = 0; ply <= moves.length; ply++) {
+                if (game.hasEnded()) {
+                    break;
+                }
+
+                final int move = engine.computeBestMove(game);
+                final double rate = 0.5 + 0.5 * score / maxScore;
+
+                lines.append(String.format(Locale.ROOT, "%d %d %s %d %.4f%n",
+                    number, ply, move == Game.NULL_MOVE ? "-" :
+                    board.toCoordinates(move), score, rate));
+
+                if (ply < moves.length) {
+                    game.makeMove(moves[ply]);
+                }
+            }
+
+            return lines.toString().getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.joansala.game.go.cli;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import com.joansala.game.go.GoGame;
+import com.joansala.game.go.engine.GoMontecarlo;
+
+
+/**
+ * Searches a standard set of positions and reports the engine speed.
+ *
+ * Positions are obtained by playing seeded random moves on each board
+ * size. Each position is first searched with a fixed simulations
+ * budget and then for a fixed time. Searches limited by simulations
+ * are reproducible, thus their best moves and visits are folded into
+ * a signature that changes only when the engine behaviour changes.
+ *
+ * When run on several threads, each thread searches the whole set
+ * with its own engine and the rates of all the threads are added.
+ */
+@Command(
+  name = "bench",
+  description = "Measures the search speed on a standard set of positions",
+  mixinStandardHelpOptions = true
+)
+public class BenchCommand implements Callable<Integer> {
+
+    /** Seed of the positions and the playouts */
+    private static final long SEED = 0x5EED_0000_0000_0B0AL;
+
+    /** Board sizes of the positions */
+    private static final int[] SIZES = { 9, 13, 19 };
+
+    /** Simulations budget of each search by board size */
+    private static final int[] BUDGETS = { 2000, 1000, 500 };
+
+    /** Plies played on each position relative to the board points */
+    private static final double[] PHASES = { 0.0, 0.25, 0.5 };
+
+    /** Time limit of the searches limited by simulations */
+    private static final long BUDGET_TIME = 60000;
+
+    @Option(
+      names = "--threads",
+      description = "Number of concurrent searches"
+    )
+    private int threads = 1;
+
+    @Option(
+      names = "--movetime",
+      description = "Milliseconds per position on timed searches"
+    )
+    private long moveTime = 1000;
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer call() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final List<Future<Result>> futures = new ArrayList<>(threads);
+        final Result total = new Result();
+
+        try {
+            for (int n = 0; n < threads; n++) {
+                futures.add(executor.submit(BenchCommand.this::run));
+            }
+
+            for (Future<Result> future : futures) {
+                total.add(future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        System.out.format("Nodes: %d%n", total.nodes);
+        System.out.format("Nodes per second: %d%n",
+            1000L * total.nodes / Math.max(1L, total.nodesTime / threads));
+        System.out.format("Playouts: %d%n", total.playouts);
+        System.out.format("Playouts per second: %d%n",
+            1000L * total.playouts / Math.max(1L, total.playoutsTime / threads));
+        System.out.format("Signature: %016x%n", total.signature);
+
+        if (total.mismatch == true) {
+            System.out.println("Signatures differ between threads");
+            return 1;
+        }
+
+        return 0;
+    }
+
+
+    /**
+     * Searches every position of the set with its own engine.
+     *
+     * @return          Benchmark result
+     */
+    private Result run() {
+        final GoMontecarlo engine = new GoMontecarlo();
+        final Result result = new Result();
+
+        engine.setTimeManagement(false);
+
+        for (int i = 0; i < SIZES.length; i++) {
+            final int gameSize = SIZES[i];
+            final int[] visits = new int[1 + gameSize * gameSize];
+
+            for (GoGame game : positions(gameSize)) {
+                engine.newMatch();
+                engine.setSeed(SEED);
+                engine.setNodeLimit(BUDGETS[i]);
+                engine.setMoveTime(BUDGET_TIME);
+
+                long start = System.currentTimeMillis();
+                final int move = engine.computeBestMove(game);
+                result.nodesTime += System.currentTimeMillis() - start;
+                result.nodes += engine.copyVisits(visits);
+                result.fold(move, visits);
+
+                engine.newMatch();
+                engine.setNodeLimit(Integer.MAX_VALUE);
+                engine.setMoveTime(moveTime);
+
+                start = System.currentTimeMillis();
+                engine.computeBestMove(game);
+                result.playoutsTime += System.currentTimeMillis() - start;
+                result.playouts += engine.copyVisits(visits);
+            }
+        }
+
+        return result;
+    }
+
+
+    /**
+     * Standard positions of a board size.
+     *
+     * @param gameSize  Board size
+     * @return          New game instances
+     */
+    private static List<GoGame> positions(int gameSize) {
+        final Random random = new Random(SEED ^ gameSize);
+        final List<GoGame> games = new ArrayList<>(PHASES.length);
+        final int points = gameSize * gameSize;
+
+        for (double phase : PHASES) {
+            final int plies = (int) (phase * points);
+            final GoGame game = new GoGame(1 + plies, gameSize);
+
+            for (int n = 0; n < plies; n++) {
+                final int move = randomMove(game, random);
+
+                if (move == game.forfeitMove()) {
+                    break;
+                }
+
+                game.makeMove(move);
+            }
+
+            games.add(game);
+        }
+
+        return games;
+    }
+
+
+    /**
+     * Picks a random legal move that does not fill an eye, or the
+     * forfeit move if there are no such moves.
+     */
+    private static int randomMove(GoGame game, Random random) {
+        final int points = game.forfeitMove();
+        final int first = random.nextInt(points);
+
+        for (int n = 0; n < points; n++) {
+            final int move = (first + n) % points;
+
+            if (!game.isEye(move) && game.isLegal(move)) {
+                return move;
+            }
+        }
+
+        return game.forfeitMove();
+    }
+
+
+    /**
+     * Counters of a benchmark run.
+     */
+    private static class Result {
+
+        /** Simulations of the searches limited by simulations */
+        long nodes = 0L;
+
+        /** Milliseconds of the searches limited by simulations */
+        long nodesTime = 0L;
+
+        /** Simulations of the timed searches */
+        long playouts = 0L;
+
+        /** Milliseconds of the timed searches */
+        long playoutsTime = 0L;
+
+        /** Signature of the searches limited by simulations */
+        long signature = 0L;
+
+        /** If the signatures of the added runs differ */
+        boolean mismatch = false;
+
+
+        /**
+         * Folds the outcome of a search into the signature.
+         *
+         * @param move      Best move found
+         * @param visits    Visits of each root move
+         */
+        void fold(int move, int[] visits) {
+            signature = 31L * signature + move;
+
+            for (int count : visits) {
+                signature = 31L * signature + count;
+            }
+        }
+
+
+        /**
+         * Adds the counters of another run to this result.
+         */
+        void add(Result result) {
+            mismatch |= nodes > 0L && signature != result.signature;
+            nodes += result.nodes;
+            nodesTime += result.nodesTime;
+            playouts += result.playouts;
+            playoutsTime += result.playoutsTime;
+            signature = result.signature;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.joansala.game.go.cli;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import com.joansala.game.go.io.PositionIndex;
+
+
+/**
+ * Builds a position index of an SGF collection.
+ */
+@Command(
+  name = "index",
+  description = "Builds a position index of an SGF collection",
+  mixinStandardHelpOptions = true
+)
+public class IndexCommand implements Callable<Integer> {
+
+    @Option(
+      names = "--input",
+      description = "SGF collection to index",
+      required = true
+    )
+    private Path input;
+
+    @Option(
+      names = "--output",
+      description = "Index file to write",
+      required = true
+    )
+    private Path output;
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer call() throws Exception {
+        final long start = System.currentTimeMillis();
+        final long size = PositionIndex.build(input, output);
+        final long elapsed = System.currentTimeMillis() - start;
+
+        System.out.format("Positions: %d%n", size);
+        System.out.format("Time: %d ms%n", elapsed);
+
+        return 0;
+    }
+}
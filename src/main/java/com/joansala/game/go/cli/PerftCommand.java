@@ -0,0 +1,87 @@
+package com.joansala.game.go.cli;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import com.joansala.game.go.GoBoard;
+import com.joansala.game.go.GoGame;
+import com.joansala.game.go.GoPerft;
+
+
+/**
+ * Counts the move sequences from a position for each depth up to a
+ * maximum and reports the leaves counted per second.
+ */
+@Command(
+  name = "perft",
+  description = "Counts the move sequences from a position",
+  mixinStandardHelpOptions = true
+)
+public class PerftCommand implements Callable<Integer> {
+
+    @Option(
+      names = "--diagram",
+      description = "Diagram of the start position"
+    )
+    private String diagram = "9/9/9/9/9/9/9/9/9 b -";
+
+    @Option(
+      names = "--depth",
+      description = "Maximum depth to count"
+    )
+    private int depth = 3;
+
+    @Option(
+      names = "--threads",
+      description = "Number of workers"
+    )
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer call() throws Exception {
+        final GoBoard board = new GoBoard().toBoard(diagram);
+        final GoGame game = new GoGame(board.gameSize());
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+
+        game.setBoard(board);
+
+        try {
+            for (int n = 1; n <= depth; n++) {
+                final long start = System.currentTimeMillis();
+                final long leaves = GoPerft.count(game, n, pool);
+                final long elapsed = Math.max(1L, System.currentTimeMillis() - start);
+
+                System.out.format("Depth %d: %d leaves, %d ms, %d leaves/s%n",
+                    n, leaves, elapsed, 1000L * leaves / elapsed);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        return 0;
+    }
+}
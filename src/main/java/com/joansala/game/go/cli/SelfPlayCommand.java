@@ -0,0 +1,222 @@
+package com.joansala.game.go.cli;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+import picocli.CommandLine.Spec;
+
+import com.joansala.engine.Game;
+import com.joansala.game.go.GoGame;
+import com.joansala.game.go.engine.GoMontecarlo;
+import com.joansala.game.go.io.ShardWriter;
+import com.joansala.game.go.io.TrainingRecord;
+
+
+/**
+ * Plays concurrent self-play games and stores their positions as
+ * binary training records.
+ *
+ * Each game is played by its own engine on its own game instance on
+ * a pool of worker threads. Once a game is over, its records are
+ * completed with the game outcome and appended to a sequence of shard
+ * files (see {@link TrainingRecord} and {@link ShardWriter}).
+ */
+@Command(
+  name = "selfplay",
+  description = "Generates training records from self-play games",
+  mixinStandardHelpOptions = true
+)
+public class SelfPlayCommand implements Callable<Integer> {
+
+    /** Maximum plies of a game for each board point */
+    private static final int PLIES_PER_POINT = 3;
+
+    @Spec
+    private CommandSpec spec;
+
+    @Option(
+      names = "--games",
+      description = "Number of games to play"
+    )
+    private int games = 100;
+
+    @Option(
+      names = "--threads",
+      description = "Number of concurrent games"
+    )
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    @Option(
+      names = "--size",
+      description = "Board size (9, 13 or 19)"
+    )
+    private int gameSize = 9;
+
+    @Option(
+      names = "--movetime",
+      description = "Milliseconds per move"
+    )
+    private long moveTime = 100;
+
+    @Option(
+      names = "--output",
+      description = "Output directory"
+    )
+    private Path directory = Path.of(".");
+
+    @Option(
+      names = "--prefix",
+      description = "Name prefix of the shards"
+    )
+    private String prefix = "selfplay";
+
+    @Option(
+      names = "--shard-size",
+      description = "Maximum megabytes of each shard"
+    )
+    private long shardSize = ShardWriter.DEFAULT_SHARD_SIZE >> 20;
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Integer call() throws Exception {
+        if (gameSize != 9 && gameSize != 13 && gameSize != 19) {
+            throw new ParameterException(spec.commandLine(),
+                "Unsupported board size: " + gameSize);
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final List<Future<Integer>> results = new ArrayList<>(games);
+        final long start = System.currentTimeMillis();
+        long positions = 0L;
+
+        Files.createDirectories(directory);
+
+        try (ShardWriter writer = new ShardWriter(directory, prefix,
+                shardSize << 20, ShardWriter.DEFAULT_BUFFER_SIZE)) {
+            final ThreadLocal<Player> players = ThreadLocal.withInitial(
+                () -> new Player(writer));
+
+            for (int n = 0; n < games; n++) {
+                results.add(executor.submit(() -> players.get().play()));
+            }
+
+            for (int n = 0; n < games; n++) {
+                positions += results.get(n).get();
+                System.out.format("Game %d of %d%n", 1 + n, games);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final long elapsed = Math.max(1L, System.currentTimeMillis() - start);
+
+        System.out.format("Positions: %d%n", positions);
+        System.out.format("Positions per second: %d%n", 1000L * positions / elapsed);
+
+        return 0;
+    }
+
+
+    /**
+     * Plays self-play games on a worker thread. Reuses its buffers
+     * for all the games played on the thread.
+     */
+    private class Player {
+
+        /** Writer of the game records */
+        final ShardWriter writer;
+
+        /** Encodes the training records */
+        final TrainingRecord encoder = new TrainingRecord();
+
+        /** Maximum plies of a game */
+        final int maxPlies = PLIES_PER_POINT * gameSize * gameSize;
+
+        /** Records of the game being played */
+        final ByteBuffer buffer = ByteBuffer.allocate(
+            maxPlies * TrainingRecord.maxLength(gameSize));
+
+        /** Offsets of the records on the buffer */
+        final int[] offsets = new int[maxPlies];
+
+        /** Visits of each root move */
+        final int[] visits = new int[1 + gameSize * gameSize];
+
+
+        /**
+         * Creates a new player.
+         */
+        Player(ShardWriter writer) {
+            this.writer = writer;
+        }
+
+
+        /**
+         * Plays a new game and writes its records.
+         *
+         * @return      Number of records written
+         */
+        int play() throws Exception {
+            final GoGame game = new GoGame(1 + maxPlies, gameSize);
+            final GoMontecarlo engine = new GoMontecarlo();
+            int count = 0;
+
+            engine.setMoveTime(moveTime);
+            buffer.clear();
+
+            while (count < maxPlies && !game.hasEnded()) {
+                final int move = engine.computeBestMove(game);
+
+                if (move == Game.NULL_MOVE) {
+                    break;
+                }
+
+                engine.copyVisits(visits);
+                offsets[count++] = encoder.write(buffer, game, move, visits);
+                game.makeMove(move);
+            }
+
+            final int outcome = game.outcome();
+
+            for (int i = 0; i < count; i++) {
+                TrainingRecord.setOutcome(buffer, offsets[i], outcome);
+            }
+
+            buffer.flip();
+            writer.write(buffer);
+
+            return count;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Command line tools of the Go engine.
+ */
+package com.joansala.game.go.cli;
@@ -0,0 +1,1020 @@
+package com.joansala.game.go.engine;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import com.google.inject.Inject;
+import com.joansala.engine.Game;
+import com.joansala.engine.base.BaseEngine;
+import com.joansala.game.go.GoGame;
+import com.joansala.game.go.eval.Evaluation;
+import com.joansala.game.go.eval.Evaluator;
+import com.joansala.game.go.io.AnalysisCache;
+import com.joansala.game.go.metrics.GoCounters;
+import com.joansala.game.go.metrics.GoCounters.Counter;
+import com.joansala.game.go.metrics.PlayoutsEvent;
+import com.joansala.game.go.metrics.SearchEvent;
+
+
+/**
+ * Monte-Carlo tree search engine for Go with rapid action value
+ * estimation (RAVE).
+ *
+ * Each simulation traces the points played by each player, so the
+ * outcome of a playout also updates the all-moves-as-first statistics
+ * of every sibling move played later on the same simulation. Those
+ * statistics guide the selection until a node has enough visits of
+ * its own.
+ *
+ * Nodes are expanded one child at a time following the priority
+ * ordering of the game moves, so the most promising moves are the
+ * first to be explored. Progressive widening limits the number of
+ * children of a node to {@code 1 + factor * visits ^ exponent}, thus
+ * a new child is only admitted once the node has been visited enough
+ * times and the search concentrates on the most plausible moves.
+ *
+ * The search tree is kept between moves. When a new search starts on
+ * a position reached from the previous root, the matching subtree is
+ * promoted to be the new root along with all its statistics. If
+ * pondering is enabled, the engine keeps searching the subtree of its
+ * chosen move while the opponent is thinking.
+ *
+ * The move time is the maximum time of each search. A search may end
+ * earlier, as decided by a {@link GoTimeManager}.
+ *
+ * If an {@link Evaluator} is given, each expanded leaf is submitted to
+ * it before its playout starts, so the network runs while the playout
+ * is being simulated. The value of the leaf is then blended with the
+ * playout outcome before it is backed up, and its move probabilities
+ * become the priors of its children. Priors add a progressive bias to
+ * the selection that fades away as the children are visited.
+ *
+ * If an {@link AnalysisCache} is set, searches are skipped for those
+ * positions with a cached result at least as deep as the search would
+ * be, and the result of every search is stored on the cache.
+ */
+public class GoMontecarlo extends BaseEngine {
+
+    /** Default exploration bias */
+    public static final double DEFAULT_BIAS = 0.353;
+
+    /** Visits at which RAVE and UCT values weight the same */
+    public static final int RAVE_EQUIVALENCE = 1000;
+
+    /** Weight of the network priors on the selection */
+    public static final double PRIOR_BIAS = 1.0;
+
+    /** Weight of the network values on the backed up outcomes */
+    public static final double VALUE_WEIGHT = 0.5;
+
+    /** Default progressive widening factor */
+    public static final double DEFAULT_WIDENING_FACTOR = 1.0;
+
+    /** Default progressive widening exponent */
+    public static final double DEFAULT_WIDENING_EXPONENT = 0.5;
+
+    /** Interval between search reports in milliseconds */
+    private static final long REPORT_INTERVAL = 1000;
+
+    /** Maximum plies between reused search roots */
+    private static final int MAX_REUSE_DEPTH = 4;
+
+    /** Playouts recorded on each flight recorder event */
+    private static final int PLAYOUTS_BATCH = 256;
+
+    /** Simulations of a cached result used before the rate is known */
+    private static final int MIN_CACHED_VISITS = 10000;
+
+    /** Fraction of the maximum heap the pondering tree may use */
+    private static final double PONDER_HEAP_FRACTION = 0.75;
+
+    /** Simulations between heap usage checks while pondering */
+    private static final int PONDER_CHECK_INTERVAL = 1024;
+
+    /** Maximum time of each warm-up search in milliseconds */
+    private static final long WARMUP_MOVE_TIME = 200;
+
+    /** Random number generator for the playouts */
+    private final Random random = new Random();
+
+    /** Evaluates the expanded leaves or {@code null} */
+    private final Evaluator evaluator;
+
+    /** Allocates the time of each search */
+    private final GoTimeManager timer = new GoTimeManager();
+
+    /** Exploration bias parameter */
+    private volatile double bias = DEFAULT_BIAS;
+
+    /** Progressive widening factor */
+    private volatile double wideningFactor = DEFAULT_WIDENING_FACTOR;
+
+    /** Progressive widening exponent */
+    private volatile double wideningExponent = DEFAULT_WIDENING_EXPONENT;
+
+    /** Game being searched */
+    private GoGame game = null;
+
+    /** Root node of the search tree */
+    private GoNode root = null;
+
+    /** Game length on the root node */
+    private int rootLength = 0;
+
+    /** Flight recorder event of the current playouts batch */
+    private PlayoutsEvent playouts = null;
+
+    /** If the engine searches on the opponent's time */
+    private volatile boolean ponderEnabled = false;
+
+    /** Expected reply to the last move found */
+    private volatile int ponderMove = Game.NULL_MOVE;
+
+    /** Hash code of the position of the last search */
+    private volatile long ponderHash = 0L;
+
+    /** If the pondering thread must keep searching */
+    private volatile boolean pondering = false;
+
+    /** Maximum simulations of each search */
+    private volatile int nodeLimit = Integer.MAX_VALUE;
+
+    /** Persistent cache of search results or {@code null} */
+    private volatile AnalysisCache cache = null;
+
+    /** If searches are performed to warm up the engine */
+    private boolean warming = false;
+
+    /** Simulations per millisecond on the last search */
+    private double visitRate = 0.0;
+
+    /** Thread searching on the opponent's time */
+    private volatile Thread ponderer = null;
+
+
+    /**
+     * Create a new search engine that relies only on playouts.
+     */
+    public GoMontecarlo() {
+        this(null);
+    }
+
+
+    /**
+     * Create a new search engine guided by a network evaluator.
+     *
+     * @param evaluator Leaf evaluator or {@code null}
+     */
+    @Inject
+    public GoMontecarlo(Evaluator evaluator) {
+        super();
+        this.evaluator = evaluator;
+    }
+
+
+    /**
+     * Sets the exploration bias of the selection policy.
+     *
+     * @param bias      Exploration bias
+     */
+    public void setExplorationBias(double bias) {
+        this.bias = bias;
+    }
+
+
+    /**
+     * Sets the factor of the progressive widening schedule.
+     *
+     * @param factor    Widening factor
+     */
+    public void setWideningFactor(double factor) {
+        this.wideningFactor = factor;
+    }
+
+
+    /**
+     * Sets the exponent of the progressive widening schedule.
+     *
+     * @param exponent  Widening exponent
+     */
+    public void setWideningExponent(double exponent) {
+        this.wideningExponent = exponent;
+    }
+
+
+    /**
+     * Sets the maximum number of simulations of each search. Searches
+     * stop when either the limit or the move time are reached.
+     *
+     * @param limit     Simulations limit
+     */
+    public void setNodeLimit(int limit) {
+        this.nodeLimit = limit;
+    }
+
+
+    /**
+     * Sets the seed of the random number generator of the playouts.
+     * Searches limited by simulations are reproducible when the same
+     * seed is set before each of them.
+     *
+     * @param seed      Initial seed
+     */
+    public void setSeed(long seed) {
+        this.random.setSeed(seed);
+    }
+
+
+    /**
+     * Sets if the search time of each move is distributed by the time
+     * manager. If disabled, every search lasts the engine move time.
+     *
+     * @param enabled   If time management is enabled
+     */
+    public void setTimeManagement(boolean enabled) {
+        this.timer.setEnabled(enabled);
+    }
+
+
+    /**
+     * Sets a persistent cache of search results. The cache is checked
+     * before each search and updated with its result afterwards.
+     *
+     * @param cache     Analysis cache or {@code null}
+     */
+    public void setCache(AnalysisCache cache) {
+        this.cache = cache;
+    }
+
+
+    /**
+     * Persistent cache of search results or {@code null}.
+     */
+    public AnalysisCache getCache() {
+        return cache;
+    }
+
+
+    /**
+     * Sets if the engine keeps searching on the opponent's time.
+     *
+     * @param enabled   If pondering is enabled
+     */
+    public void setPondering(boolean enabled) {
+        this.ponderEnabled = enabled;
+
+        if (enabled == false) {
+            stopPondering();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void newMatch() {
+        stopPondering();
+
+        synchronized (this) {
+            super.newMatch();
+            this.timer.reset();
+            this.root = null;
+            this.game = null;
+        }
+    }
+
+
+    /**
+     * Plays a game against itself on a scratch board until a time
+     * budget is exhausted, so the hot paths of the search, the move
+     * generation and the scoring get compiled before the first search
+     * of a match. Reports are not sent to the consumers, the analysis
+     * cache is not used and the engine starts a new match afterwards.
+     *
+     * @param gameSize  Board size to play on
+     * @param budget    Time budget in milliseconds
+     * @return          Simulations per millisecond of the last search
+     */
+    public double warmUp(int gameSize, long budget) {
+        final long deadline = System.currentTimeMillis() + budget;
+        final int maxLength = 2 * gameSize * gameSize;
+        double rate = 0.0;
+
+        stopPondering();
+
+        synchronized (this) {
+            final GoGame game = new GoGame(gameSize);
+            final AnalysisCache cache = this.cache;
+            final boolean ponderEnabled = this.ponderEnabled;
+            final long moveTime = getMoveTime();
+            long now = System.currentTimeMillis();
+
+            this.cache = null;
+            this.ponderEnabled = false;
+            this.warming = true;
+            clearAborted();
+
+            try {
+                while (now < deadline && !aborted()) {
+                    setMoveTime(Math.min(WARMUP_MOVE_TIME, deadline - now));
+                    final int move = searchBestMove(game);
+                    rate = visitRate;
+
+                    if (move == Game.NULL_MOVE || game.length() >= maxLength) {
+                        game.reset();
+                        this.root = null;
+                    } else {
+                        game.ensureCapacity(1 + game.length());
+                        game.makeMove(move);
+                    }
+
+                    now = System.currentTimeMillis();
+                }
+            } finally {
+                this.warming = false;
+                this.ponderEnabled = ponderEnabled;
+                this.cache = cache;
+                setMoveTime(moveTime);
+            }
+        }
+
+        newMatch();
+
+        return rate;
+    }
+
+
+    /**
+     * Copies the number of simulations of each root move of the last
+     * search into an array indexed by move identifier. The array must
+     * have room for every move, forfeit included.
+     *
+     * @param visits    Destination array
+     * @return          Number of simulations of the root node
+     */
+    public int copyVisits(int[] visits) {
+        Arrays.fill(visits, 0);
+
+        if (root == null) {
+            return 0;
+        }
+
+        for (GoNode child = root.child; child != null; child = child.sibling) {
+            visits[child.move] = child.count;
+        }
+
+        return root.count;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPonderMove(Game game) {
+        return ponderHash == game.hash() ? ponderMove : Game.NULL_MOVE;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int computeBestMove(Game game) {
+        stopPondering();
+
+        synchronized (this) {
+            return searchBestMove((GoGame) game);
+        }
+    }
+
+
+    /**
+     * Searches the best move for the current position of a game.
+     *
+     * @param game      Game to search
+     * @return          Best move found
+     */
+    private int searchBestMove(GoGame game) {
+        ponderMove = Game.NULL_MOVE;
+        ponderHash = game.hash();
+
+        if (game.hasEnded()) {
+            return Game.NULL_MOVE;
+        }
+
+        final int cached = probeCache(game);
+
+        if (cached != Game.NULL_MOVE) {
+            return cached;
+        }
+
+        GoCounters.increment(Counter.SEARCHES);
+
+        final SearchEvent event = new SearchEvent();
+        event.begin();
+
+        this.game = game;
+        this.game.setMoveOrdering(true);
+        this.root = findRoot(this.game);
+
+        if (root.priors == null && !root.expanded) {
+            final Evaluation evaluation = await(submit(root));
+            root.priors = evaluation == null ? null : evaluation.priors;
+        }
+
+        clearAborted();
+
+        final long start = System.currentTimeMillis();
+        final int visits = root.count;
+        long nextReport = start + REPORT_INTERVAL;
+        timer.start(this.game, root, moveTime, start);
+
+        while (!aborted() || root.count == 0) {
+            search(root);
+
+            if (root.count - visits >= nodeLimit) {
+                break;
+            }
+
+            final long now = System.currentTimeMillis();
+
+            if (timer.isDone(root, now)) {
+                break;
+            }
+
+            if (now >= nextReport) {
+                report(new GoReport(root, maxScore));
+                nextReport = now + REPORT_INTERVAL;
+            }
+        }
+
+        final long end = System.currentTimeMillis();
+        final GoReport report = new GoReport(root, maxScore);
+        visitRate = (root.count - visits) / Math.max(1.0, end - start);
+        timer.stop(end);
+        report(report);
+        GoNode best = GoReport.mostVisitedChild(root);
+        this.game.setMoveOrdering(false);
+        commitPlayouts();
+
+        event.gameSize = game.gameSize();
+        event.simulations = root.count - visits;
+        event.rootSimulations = root.count;
+        event.bestMove = best == null ? Game.NULL_MOVE : best.move;
+        event.moveTime = moveTime;
+        event.commit();
+
+        if (best == null) {
+            return Game.NULL_MOVE;
+        }
+
+        storeCache(game, root.count, best.value(), report.getVariation());
+
+        GoNode reply = GoReport.mostVisitedChild(best);
+        ponderMove = reply == null ? Game.NULL_MOVE : reply.move;
+
+        if (ponderEnabled && !best.terminal) {
+            startPondering(best);
+        }
+
+        return best.move;
+    }
+
+
+    /**
+     * Looks up the current position of a game on the analysis cache.
+     * A cached result is used if it has at least as many simulations
+     * as the search is expected to perform and its best move is legal
+     * on the game, since hashes do not account for the ko point.
+     *
+     * @param game      Game to search
+     * @return          Cached best move or {@code NULL_MOVE}
+     */
+    private int probeCache(GoGame game) {
+        final AnalysisCache cache = this.cache;
+
+        if (cache == null) {
+            return Game.NULL_MOVE;
+        }
+
+        try {
+            final AnalysisCache.Entry entry = cache.get(game.hash());
+
+            if (entry == null || entry.variation.length == 0) {
+                return Game.NULL_MOVE;
+            }
+
+            if (entry.visits < expectedVisits()) {
+                return Game.NULL_MOVE;
+            }
+
+            if (!game.isLegal(entry.variation[0])) {
+                return Game.NULL_MOVE;
+            }
+
+            final int score = (int) Math.round(maxScore * entry.value);
+            report(new GoReport(score, entry.variation));
+            ponderMove = entry.variation.length > 1 ?
+                entry.variation[1] : Game.NULL_MOVE;
+
+            return entry.variation[0];
+        } catch (IOException e) {
+            this.cache = null;
+        }
+
+        return Game.NULL_MOVE;
+    }
+
+
+    /**
+     * Number of simulations a search is expected to perform. Before
+     * the first search of the process the rate is not known, so a
+     * fixed minimum is expected instead.
+     */
+    private double expectedVisits() {
+        final double visits = visitRate > 0.0 ?
+            visitRate * moveTime : MIN_CACHED_VISITS;
+
+        return Math.min(visits, nodeLimit);
+    }
+
+
+    /**
+     * Stores the result of a search on the analysis cache.
+     *
+     * @param game      Game that was searched
+     * @param visits    Simulations of the root node
+     * @param value     Value of the best move
+     * @param variation Principal variation
+     */
+    private void storeCache(GoGame game, int visits, double value, int[] variation) {
+        final AnalysisCache cache = this.cache;
+
+        if (cache != null) {
+            try {
+                cache.put(game.hash(), visits, value, variation, variation.length);
+            } catch (IOException e) {
+                this.cache = null;
+            }
+        }
+    }
+
+
+    /**
+     * Sends a report to the consumers unless warming up.
+     *
+     * @param report    Search report
+     */
+    private void report(GoReport report) {
+        if (warming == false) {
+            invokeConsumers(report);
+        }
+    }
+
+
+    /**
+     * Obtains a root node for the current game position. Reuses the
+     * subtree of the previous search if the position was reached from
+     * its root, or creates a new root node otherwise.
+     *
+     * @param game      Game to search
+     * @return          Root node
+     */
+    private GoNode findRoot(GoGame game) {
+        final int depth = game.length() - rootLength;
+        GoNode node = null;
+
+        if (root != null && depth >= 0 && depth <= MAX_REUSE_DEPTH) {
+            node = findNode(root, game.hash(), depth);
+        }
+
+        if (node == null) {
+            node = createRoot(game);
+        }
+
+        node.parent = null;
+        node.sibling = null;
+        rootLength = game.length();
+
+        return node;
+    }
+
+
+    /**
+     * Finds a descendant of a node at the given depth whose position
+     * matches a hash code.
+     *
+     * @param node      Node where the search starts
+     * @param hash      Hash code of the position
+     * @param depth     Depth of the descendant
+     * @return          Matching node or {@code null}
+     */
+    private static GoNode findNode(GoNode node, long hash, int depth) {
+        if (depth == 0) {
+            return node.hash == hash ? node : null;
+        }
+
+        for (GoNode child = node.child; child != null; child = child.sibling) {
+            GoNode match = findNode(child, hash, depth - 1);
+
+            if (match != null) {
+                return match;
+            }
+        }
+
+        return null;
+    }
+
+
+    /**
+     * Starts searching the subtree of a move on a background thread.
+     * The thread runs simulations from the position after the move,
+     * which is where the opponent is thinking, until the next call to
+     * {@link #stopPondering()}.
+     *
+     * @param node      Node of the chosen move
+     */
+    private void startPondering(GoNode node) {
+        final GoGame game = this.game.deepCopy();
+
+        game.makeMove(node.move);
+        game.setMoveOrdering(true);
+        pondering = true;
+
+        ponderer = new Thread(() -> ponder(game, node), "go-ponder");
+        ponderer.setDaemon(true);
+        ponderer.start();
+    }
+
+
+    /**
+     * Stops the pondering thread, if any, and waits for it to finish.
+     */
+    private void stopPondering() {
+        final Thread thread = ponderer;
+
+        if (thread != null) {
+            pondering = false;
+
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            ponderer = null;
+        }
+    }
+
+
+    /**
+     * Runs simulations from a node until pondering is stopped or the
+     * simulations limit or the heap budget are reached.
+     *
+     * The search tree is handed to the pondering thread when it starts
+     * and handed back when {@link #stopPondering()} joins it, thus this
+     * method does not hold the engine monitor. Every method that uses
+     * the tree must stop pondering first.
+     *
+     * @param game      Game on the node position
+     * @param node      Root node of the simulations
+     */
+    private void ponder(GoGame game, GoNode node) {
+        final Runtime runtime = Runtime.getRuntime();
+        final long budget = (long) (PONDER_HEAP_FRACTION * runtime.maxMemory());
+        final int visits = node.count;
+
+        this.game = game;
+
+        while (pondering == true) {
+            search(node);
+
+            final int simulations = node.count - visits;
+
+            if (simulations >= nodeLimit) {
+                break;
+            }
+
+            if (simulations % PONDER_CHECK_INTERVAL == 0) {
+                if (runtime.totalMemory() - runtime.freeMemory() > budget) {
+                    break;
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Creates a root node for the current game position.
+     */
+    private GoNode createRoot(GoGame game) {
+        GoNode node = new GoNode();
+
+        node.turn = -game.turn();
+        node.hash = game.hash();
+        node.move = game.lastMove();
+        game.resetCursor();
+        node.cursor = game.getCursor();
+
+        return node;
+    }
+
+
+    /**
+     * Runs a single simulation from the root node. That is, selects a
+     * path down the tree, expands a new child node, simulates a match
+     * from it and backpropagates the outcome to the nodes on the path.
+     *
+     * @param root      Root node
+     */
+    private void search(GoNode root) {
+        CompletableFuture<Evaluation> pending = null;
+        GoNode node = root;
+        int depth = 0;
+
+        game.startTrace();
+
+        while (node.terminal == false) {
+            GoNode child = isWidening(node) ? expand(node) : null;
+
+            if (child != null) {
+                pending = submit(child);
+                node = child;
+                depth++;
+                break;
+            }
+
+            node = pickLeadChild(node);
+            game.makeMove(node.move);
+            depth++;
+        }
+
+        double outcome = node.terminal ?
+            Math.signum(game.outcome()) : simulateMatch();
+
+        final Evaluation evaluation = await(pending);
+
+        if (evaluation != null) {
+            final double value = -node.turn * evaluation.value;
+            outcome = (1.0 - VALUE_WEIGHT) * outcome + VALUE_WEIGHT * value;
+            node.priors = evaluation.priors;
+        }
+
+        game.stopTrace();
+        backpropagate(root, node, depth, outcome);
+        game.unmakeMoves(depth);
+    }
+
+
+    /**
+     * Check if a new child can be admitted on a node. That is, if the
+     * node can be expanded and the number of its children is below the
+     * progressive widening limit for its number of visits.
+     *
+     * @param node      Node to check
+     * @return          If a new child must be generated
+     */
+    private boolean isWidening(GoNode node) {
+        if (node.expanded || node.child == null) {
+            return !node.expanded;
+        }
+
+        final double limit = wideningFactor *
+            Math.pow(node.count, wideningExponent);
+
+        return node.size < 1 + limit;
+    }
+
+
+    /**
+     * Generates the next child of a node and performs its move on the
+     * game. If no more children can be generated the node is flagged
+     * as expanded and no move is performed.
+     *
+     * @param node      Node to expand
+     * @return          New child node or {@code null}
+     */
+    private GoNode expand(GoNode node) {
+        game.setCursor(node.cursor);
+        final int move = game.nextMove();
+        node.cursor = game.getCursor();
+
+        if (move == Game.NULL_MOVE) {
+            node.expanded = true;
+            node.priors = null;
+            return null;
+        }
+
+        GoNode child = new GoNode(node, move, game.turn());
+        child.prior = node.priors == null ? 0.0F : node.priors[move];
+        game.makeMove(move);
+        child.hash = game.hash();
+        child.terminal = game.hasEnded();
+        game.resetCursor();
+        child.cursor = game.getCursor();
+
+        return child;
+    }
+
+
+    /**
+     * Picks the child of a node to explore next. Blends the value of
+     * each child with its all-moves-as-first value, giving more weight
+     * to the later while the child has few visits, and adds a bias
+     * towards the moves with a higher network prior.
+     *
+     * @param node      Parent node
+     * @return          Selected child
+     */
+    private GoNode pickLeadChild(GoNode node) {
+        final double factor = bias * Math.sqrt(Math.log(node.count));
+
+        GoNode best = node.child;
+        double bestPriority = Double.NEGATIVE_INFINITY;
+
+        for (GoNode child = node.child; child != null; child = child.sibling) {
+            final double beta = Math.sqrt(
+                RAVE_EQUIVALENCE / (3.0 * child.count + RAVE_EQUIVALENCE));
+            final double value = (1.0 - beta) * child.value() +
+                beta * child.raveValue();
+            final double priority = value +
+                factor / Math.sqrt(child.count) +
+                PRIOR_BIAS * child.prior / (1.0 + child.count);
+
+            if (priority > bestPriority) {
+                bestPriority = priority;
+                best = child;
+            }
+        }
+
+        return best;
+    }
+
+
+    /**
+     * Submits the current game position, which must be the position
+     * of a node, to the evaluator. Terminal nodes are not evaluated.
+     *
+     * @param node      Node to evaluate
+     * @return          Pending evaluation or {@code null}
+     */
+    private CompletableFuture<Evaluation> submit(GoNode node) {
+        if (evaluator == null || node.terminal) {
+            return null;
+        }
+
+        return evaluator.evaluate(game);
+    }
+
+
+    /**
+     * Waits for a pending evaluation to complete. If the evaluation
+     * failed the search continues on playouts alone.
+     *
+     * @param pending   Pending evaluation or {@code null}
+     * @return          Evaluation or {@code null}
+     */
+    private static Evaluation await(CompletableFuture<Evaluation> pending) {
+        if (pending == null) {
+            return null;
+        }
+
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            return null;
+        }
+    }
+
+
+    /**
+     * Simulates a random match from the current game position and
+     * undoes its moves afterwards. Playouts never fill the eyes of the
+     * player to move and pass when no other moves are available.
+     *
+     * @return      Outcome from the south player perspective
+     */
+    private double simulateMatch() {
+        final int size = game.forfeitMove();
+        final int maxLength = size << 1;
+        int length = 0;
+
+        game.ensureCapacity(game.length() + maxLength);
+
+        while (length < maxLength && !game.hasEnded()) {
+            game.makeMove(pickPlayoutMove(size));
+            length++;
+        }
+
+        final double outcome = Math.signum(game.outcome());
+        GoCounters.playout(game.gameSize(), length);
+        recordPlayout(length);
+        game.unmakeMoves(length);
+
+        return outcome;
+    }
+
+
+    /**
+     * Adds a playout to the current flight recorder batch and commits
+     * the batch once it is full.
+     *
+     * @param length    Plies of the playout
+     */
+    private void recordPlayout(int length) {
+        if (playouts == null) {
+            playouts = new PlayoutsEvent();
+            playouts.gameSize = game.gameSize();
+            playouts.begin();
+        }
+
+        playouts.playouts++;
+        playouts.plies += length;
+
+        if (playouts.playouts >= PLAYOUTS_BATCH) {
+            commitPlayouts();
+        }
+    }
+
+
+    /**
+     * Commits the current batch of playouts, if any.
+     */
+    private void commitPlayouts() {
+        if (playouts != null) {
+            playouts.commit();
+            playouts = null;
+        }
+    }
+
+
+    /**
+     * Picks a random legal move that does not fill an eye.
+     *
+     * @param size      Number of intersections
+     * @return          Move identifier
+     */
+    private int pickPlayoutMove(int size) {
+        final int first = random.nextInt(size);
+
+        for (int n = 0; n < size; n++) {
+            final int move = (first + n) % size;
+
+            if (!game.isEye(move) && game.isLegal(move)) {
+                return move;
+            }
+        }
+
+        return game.forfeitMove();
+    }
+
+
+    /**
+     * Updates the statistics of the nodes on a simulation path. Each
+     * node on the path receives the outcome and so does every child of
+     * a node on the path whose move was played, by the same player,
+     * later on the simulation.
+     *
+     * @param root      First node of the path
+     * @param node      Last node of the path
+     * @param depth     Depth of the last node
+     * @param outcome   Outcome from the south player perspective
+     */
+    private void backpropagate(GoNode root, GoNode node, int depth, double outcome) {
+        node.update(outcome);
+
+        for (GoNode parent = node; parent != root; ) {
+            parent = parent.parent;
+            depth--;
+            parent.update(outcome);
+
+            for (GoNode child = parent.child; child != null; child = child.sibling) {
+                if (game.tracedPly(child.turn, child.move) >= depth) {
+                    child.updateRave(outcome);
+                }
+            }
+        }
+    }
+}
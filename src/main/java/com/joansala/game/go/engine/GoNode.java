@@ -0,0 +1,138 @@
+package com.joansala.game.go.engine;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import com.joansala.engine.Game;
+
+
+/**
+ * A node of the Go search tree.
+ */
+final class GoNode {
+
+    /** Parent of this node */
+    GoNode parent = null;
+
+    /** First child of this node */
+    GoNode child = null;
+
+    /** Next sibling of this node */
+    GoNode sibling = null;
+
+    /** Move that leads to this node */
+    int move = Game.NULL_MOVE;
+
+    /** Player that performed the move */
+    int turn = Game.SOUTH;
+
+    /** Hash code of the node position */
+    long hash = 0L;
+
+    /** Move generation cursor */
+    int cursor = Game.NULL_MOVE;
+
+    /** Number of children of this node */
+    int size = 0;
+
+    /** If all the children were generated */
+    boolean expanded = false;
+
+    /** If the node is an endgame position */
+    boolean terminal = false;
+
+    /** Number of simulations through this node */
+    int count = 0;
+
+    /** Accumulated outcomes for the player that moved */
+    double score = 0.0;
+
+    /** Number of simulations where the move was played */
+    int raveCount = 0;
+
+    /** Accumulated outcomes of those simulations */
+    double raveScore = 0.0;
+
+    /** Network probability of the move that leads to this node */
+    float prior = 0.0F;
+
+    /** Network probabilities of the moves of this node or null */
+    float[] priors = null;
+
+
+    /**
+     * Creates a new root node.
+     */
+    GoNode() {}
+
+
+    /**
+     * Creates a new child node and appends it to its parent.
+     *
+     * @param parent    Parent node
+     * @param move      Move that leads to this node
+     * @param turn      Player that performed the move
+     */
+    GoNode(GoNode parent, int move, int turn) {
+        this.parent = parent;
+        this.move = move;
+        this.turn = turn;
+        this.sibling = parent.child;
+        parent.child = this;
+        parent.size++;
+    }
+
+
+    /**
+     * Average outcome of the simulations for the player that moved.
+     */
+    double value() {
+        return count > 0 ? score / count : 0.0;
+    }
+
+
+    /**
+     * Average outcome of the simulations where the move was played
+     * at any later point, for the player that moved.
+     */
+    double raveValue() {
+        return raveCount > 0 ? raveScore / raveCount : 0.0;
+    }
+
+
+    /**
+     * Adds a simulation outcome to this node.
+     *
+     * @param outcome   Outcome from the south player perspective
+     */
+    void update(double outcome) {
+        score += turn * outcome;
+        count++;
+    }
+
+
+    /**
+     * Adds an all-moves-as-first outcome to this node.
+     *
+     * @param outcome   Outcome from the south player perspective
+     */
+    void updateRave(double outcome) {
+        raveScore += turn * outcome;
+        raveCount++;
+    }
+}
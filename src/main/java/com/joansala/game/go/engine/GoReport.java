@@ -0,0 +1,134 @@
+package com.joansala.game.go.engine;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.Arrays;
+import com.joansala.engine.Report;
+
+
+/**
+ * Search report of a Go engine.
+ */
+final class GoReport implements Report {
+
+    /** Exact score flag */
+    private static final int EXACT = 3;
+
+    /** Length of the principal variation */
+    private final int depth;
+
+    /** Score of the principal variation */
+    private final int score;
+
+    /** Principal variation moves */
+    private final int[] variation;
+
+
+    /**
+     * Creates a new report from a search tree.
+     *
+     * @param root      Root node of the search
+     * @param maxScore  Maximum possible score
+     */
+    GoReport(GoNode root, int maxScore) {
+        int[] moves = new int[16];
+        int length = 0;
+
+        GoNode node = mostVisitedChild(root);
+        int score = (int) Math.round(maxScore * (node == null ? 0.0 : node.value()));
+
+        while (node != null) {
+            if (length == moves.length) {
+                moves = Arrays.copyOf(moves, length << 1);
+            }
+
+            moves[length++] = node.move;
+            node = mostVisitedChild(node);
+        }
+
+        this.depth = length;
+        this.score = score;
+        this.variation = Arrays.copyOf(moves, length);
+    }
+
+
+    /**
+     * Creates a new report for a known variation.
+     *
+     * @param score     Score of the variation
+     * @param variation Principal variation moves
+     */
+    GoReport(int score, int[] variation) {
+        this.depth = variation.length;
+        this.score = score;
+        this.variation = variation;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getDepth() {
+        return depth;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getFlag() {
+        return EXACT;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getScore() {
+        return score;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int[] getVariation() {
+        return variation;
+    }
+
+
+    /**
+     * Child of a node with the highest number of visits.
+     */
+    static GoNode mostVisitedChild(GoNode node) {
+        GoNode best = null;
+
+        for (GoNode child = node.child; child != null; child = child.sibling) {
+            if (best == null || child.count > best.count) {
+                best = child;
+            }
+        }
+
+        return best;
+    }
+}
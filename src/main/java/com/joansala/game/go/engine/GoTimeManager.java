@@ -0,0 +1,262 @@
+package com.joansala.game.go.engine;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import com.joansala.game.go.GoGame;
+
+
+/**
+ * Allocates the search time of each move of a Go match.
+ *
+ * The engine move time is a hard upper limit of every search, so an
+ * explicit move time is never exceeded. Targets are allotted below
+ * that limit: the base target is the move time divided by both the
+ * maximum weight and the maximum extension, which leaves headroom for
+ * banked time and extensions. Moves on the opening and the endgame
+ * are given less than the base and the time saved is kept on a bank,
+ * which is spread over the remaining moves of the player. The number
+ * of remaining moves is estimated from the board size and the number
+ * of empty points, thus most of the time is spent on the middle game.
+ *
+ * A search stops before its target time when the most visited move
+ * cannot be overtaken with the simulations that are still expected,
+ * and it is extended past its target, up to the move time, while the
+ * two most visited moves are close.
+ */
+final class GoTimeManager {
+
+    /** Move times from which the time is not managed */
+    private static final long UNMANAGED_TIME = Integer.MAX_VALUE;
+
+    /** Fraction of the points expected to be empty on the endgame */
+    private static final double ENDGAME_EMPTIES = 0.35;
+
+    /** Time weight on the opening and the endgame */
+    private static final double MIN_WEIGHT = 0.5;
+
+    /** Time weight on the middle of the game */
+    private static final double MAX_WEIGHT = 1.5;
+
+    /** Maximum extension of the target time */
+    private static final double MAX_EXTENSION = 2.0;
+
+    /** Fraction of the target time before stopping early */
+    private static final double MIN_FRACTION = 0.2;
+
+    /** Visits ratio of the second move to consider it close */
+    private static final double CLOSE_RATIO = 0.75;
+
+    /** Bitboard words of the position being managed */
+    private final long[] words = new long[GoGame.POSITION_WORDS];
+
+    /** If the time of the searches is managed */
+    private volatile boolean enabled = true;
+
+    /** If the current search time is managed */
+    private boolean managed = false;
+
+    /** Time saved on previous moves in milliseconds */
+    private long bank = 0L;
+
+    /** Base target time of the current search */
+    private long base = 0L;
+
+    /** Time at which the search started */
+    private long start = 0L;
+
+    /** Time the search should last */
+    private long target = 0L;
+
+    /** Time the search must not exceed */
+    private long limit = 0L;
+
+    /** Root simulations when the search started */
+    private int visits = 0;
+
+
+    /**
+     * Sets if the time of the searches is managed. Otherwise each
+     * search lasts exactly the given move time.
+     *
+     * @param enabled   If time management is enabled
+     */
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+
+    /**
+     * Discards the time saved on previous moves.
+     */
+    void reset() {
+        bank = 0L;
+    }
+
+
+    /**
+     * Computes the time allocation for a new search.
+     *
+     * @param game      Game position to search
+     * @param root      Root node of the search
+     * @param moveTime  Maximum time of the search
+     * @param now       Current time in milliseconds
+     */
+    void start(GoGame game, GoNode root, long moveTime, long now) {
+        this.start = now;
+        this.visits = root.count;
+        this.base = (long) (moveTime / (MAX_WEIGHT * MAX_EXTENSION));
+        this.managed = enabled && moveTime < UNMANAGED_TIME;
+
+        if (managed == false) {
+            target = limit = moveTime;
+            return;
+        }
+
+        final int gameSize = game.gameSize();
+        final int points = gameSize * gameSize;
+        final double initial = remainingMoves(gameSize, points);
+        final double remaining = remainingMoves(gameSize, countEmpties(game));
+        final double progress = Math.max(0.0, 1.0 - remaining / initial);
+        final double weight = MIN_WEIGHT +
+            (MAX_WEIGHT - MIN_WEIGHT) * Math.sin(Math.PI * progress);
+
+        final double allowance = base + bank / remaining;
+
+        target = Math.min(moveTime, (long) (weight * allowance));
+        limit = Math.min(moveTime, (long) (MAX_EXTENSION * target));
+    }
+
+
+    /**
+     * Time the current search should last.
+     */
+    long target() {
+        return target;
+    }
+
+
+    /**
+     * Time the current search must not exceed.
+     */
+    long limit() {
+        return limit;
+    }
+
+
+    /**
+     * Check if the search must be stopped.
+     *
+     * @param root      Root node of the search
+     * @param now       Current time in milliseconds
+     * @return          If the search is done
+     */
+    boolean isDone(GoNode root, long now) {
+        final long elapsed = now - start;
+
+        if (elapsed >= limit) {
+            return true;
+        }
+
+        if (managed == false) {
+            return false;
+        }
+
+        if (elapsed < MIN_FRACTION * target) {
+            return false;
+        }
+
+        GoNode first = null;
+        GoNode second = null;
+
+        for (GoNode child = root.child; child != null; child = child.sibling) {
+            if (first == null || child.count > first.count) {
+                second = first;
+                first = child;
+            } else if (second == null || child.count > second.count) {
+                second = child;
+            }
+        }
+
+        if (first == null || second == null) {
+            return elapsed >= target;
+        }
+
+        if (elapsed >= target) {
+            return !isClose(first, second);
+        }
+
+        final double rate = (root.count - visits) / Math.max(1.0, elapsed);
+        final double expected = rate * (target - elapsed);
+
+        return first.count - second.count > expected;
+    }
+
+
+    /**
+     * Keeps the time not spent on a search for the next moves.
+     *
+     * @param now       Current time in milliseconds
+     */
+    void stop(long now) {
+        if (managed == true) {
+            bank = Math.max(0L, bank + base - (now - start));
+        }
+    }
+
+
+    /**
+     * Check if two moves are close enough to extend the search. That
+     * is, if the second has almost as many visits as the most visited
+     * move or a better average outcome.
+     */
+    private static boolean isClose(GoNode first, GoNode second) {
+        return second.count >= CLOSE_RATIO * first.count ||
+               second.value() > first.value();
+    }
+
+
+    /**
+     * Estimated number of moves the player still has to perform.
+     *
+     * @param gameSize  Board size
+     * @param empties   Number of empty points
+     */
+    private static double remainingMoves(int gameSize, int empties) {
+        final double points = gameSize * gameSize;
+        final double moves = 0.5 * (empties - ENDGAME_EMPTIES * points);
+        return Math.max(0.5 * gameSize, moves);
+    }
+
+
+    /**
+     * Number of empty points on the current position of a game.
+     */
+    private int countEmpties(GoGame game) {
+        final int gameSize = game.gameSize();
+        int stones = 0;
+
+        game.copyPosition(0, words, 0);
+
+        for (long word : words) {
+            stones += Long.bitCount(word);
+        }
+
+        return gameSize * gameSize - stones;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Search engines specialized for Go.
+ */
+package com.joansala.game.go.engine;
@@ -0,0 +1,323 @@
+package com.joansala.game.go.eval;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import com.joansala.game.go.GoGame;
+
+
+/**
+ * Evaluates positions on batches with a single network forward pass.
+ *
+ * Search workers submit their leaf positions to a queue. A worker
+ * thread runs the network as soon as a batch is full, or when the
+ * oldest position on the batch has waited for the configured timeout,
+ * and completes the futures of the positions afterwards. Positions
+ * are encoded, with a {@link FeatureEncoder}, directly into the input
+ * buffer of the batch while the previous batch is being evaluated.
+ */
+public class BatchEvaluator implements Evaluator {
+
+    /** Default number of positions on each batch */
+    public static final int DEFAULT_BATCH_SIZE = 16;
+
+    /** Default batch timeout in microseconds */
+    public static final long DEFAULT_TIMEOUT = 2000;
+
+    /** Maximum number of intersections of a board */
+    private static final int MAX_POINTS = 19 * 19;
+
+    /** Guards the batches and the closed flag */
+    private final Object lock = new Object();
+
+    /** Encodes the positions into the batches */
+    private final FeatureEncoder encoder = new FeatureEncoder();
+
+    /** Network that evaluates the batches */
+    private final Network network;
+
+    /** Maximum number of positions on a batch */
+    private final int batchSize;
+
+    /** Batch timeout in nanoseconds */
+    private final long timeout;
+
+    /** Worker thread that runs the network */
+    private final Thread worker;
+
+    /** Batch receiving new positions */
+    private Batch filling;
+
+    /** Batch available for reuse */
+    private Batch spare;
+
+    /** If the evaluator was closed */
+    private boolean closed = false;
+
+
+    /**
+     * Creates a new evaluator with the default batch parameters.
+     *
+     * @param network   Network that evaluates positions
+     */
+    public BatchEvaluator(Network network) {
+        this(network, DEFAULT_BATCH_SIZE, DEFAULT_TIMEOUT);
+    }
+
+
+    /**
+     * Creates a new evaluator.
+     *
+     * @param network   Network that evaluates positions
+     * @param batchSize Maximum number of positions on a batch
+     * @param timeout   Maximum wait of a position in microseconds
+     */
+    public BatchEvaluator(Network network, int batchSize, long timeout) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException(
+                "Batch size must be positive");
+        }
+
+        if (network.planes() != FeatureEncoder.PLANES) {
+            throw new IllegalArgumentException(
+                "Network must accept " + FeatureEncoder.PLANES + " planes");
+        }
+
+        this.network = network;
+        this.batchSize = batchSize;
+        this.timeout = TimeUnit.MICROSECONDS.toNanos(timeout);
+        this.filling = new Batch(batchSize);
+        this.spare = new Batch(batchSize);
+        this.worker = new Thread(this::run, "go-evaluator");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<Evaluation> evaluate(GoGame game) {
+        final CompletableFuture<Evaluation> future = new CompletableFuture<>();
+        final int gameSize = game.gameSize();
+
+        synchronized (lock) {
+            while (!closed && !filling.accepts(gameSize)) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    future.completeExceptionally(e);
+                    return future;
+                }
+            }
+
+            if (closed == true) {
+                future.completeExceptionally(
+                    new IllegalStateException("Evaluator is closed"));
+                return future;
+            }
+
+            if (filling.count == 0) {
+                filling.gameSize = gameSize;
+                filling.length = FeatureEncoder.length(gameSize);
+                filling.deadline = System.nanoTime() + timeout;
+            }
+
+            encoder.encode(game, filling.inputs, filling.count * filling.length);
+            filling.futures[filling.count++] = future;
+            lock.notifyAll();
+        }
+
+        return future;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    /**
+     * Evaluates batches until the evaluator is closed.
+     */
+    private void run() {
+        while (true) {
+            final Batch batch;
+
+            try {
+                batch = awaitBatch();
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            if (batch == null) {
+                break;
+            }
+
+            process(batch);
+
+            synchronized (lock) {
+                spare = batch;
+                lock.notifyAll();
+            }
+        }
+    }
+
+
+    /**
+     * Waits until the filling batch is ready to be evaluated and
+     * replaces it with the spare batch.
+     *
+     * @return      Ready batch or {@code null} if closed
+     */
+    private Batch awaitBatch() throws InterruptedException {
+        synchronized (lock) {
+            while (true) {
+                final long now = System.nanoTime();
+
+                if (filling.count > 0) {
+                    if (closed || filling.count == batchSize) break;
+                    if (now >= filling.deadline) break;
+                }
+
+                if (closed && filling.count == 0) {
+                    return null;
+                }
+
+                if (filling.count == 0) {
+                    lock.wait();
+                } else {
+                    TimeUnit.NANOSECONDS.timedWait(lock, filling.deadline - now);
+                }
+            }
+
+            final Batch batch = filling;
+            filling = spare;
+            spare = null;
+            lock.notifyAll();
+
+            return batch;
+        }
+    }
+
+
+    /**
+     * Runs the network on a batch and completes its futures.
+     */
+    private void process(Batch batch) {
+        final int points = batch.gameSize * batch.gameSize;
+        final int length = 1 + points;
+
+        try {
+            network.forward(batch.inputs, batch.count,
+                batch.gameSize, batch.priors, batch.values);
+
+            for (int n = 0; n < batch.count; n++) {
+                final int offset = n * length;
+                final float[] priors = Arrays.copyOfRange(
+                    batch.priors, offset, offset + length);
+                batch.futures[n].complete(
+                    new Evaluation(priors, batch.values[n]));
+            }
+        } catch (RuntimeException e) {
+            for (int n = 0; n < batch.count; n++) {
+                batch.futures[n].completeExceptionally(e);
+            }
+        }
+
+        Arrays.fill(batch.futures, null);
+        batch.count = 0;
+    }
+
+
+    /**
+     * A batch of positions and their evaluation results.
+     */
+    private static final class Batch {
+
+        /** Network inputs of the positions */
+        final FloatBuffer inputs;
+
+        /** Move probabilities of the positions */
+        final float[] priors;
+
+        /** Values of the positions */
+        final float[] values;
+
+        /** Futures of the positions */
+        final CompletableFuture<Evaluation>[] futures;
+
+        /** Board size of the positions */
+        int gameSize = 0;
+
+        /** Number of input values of each position */
+        int length = 0;
+
+        /** Number of positions on the batch */
+        int count = 0;
+
+        /** Time at which the batch must be evaluated */
+        long deadline = 0L;
+
+
+        /**
+         * Creates a new empty batch.
+         *
+         * @param size      Maximum number of positions
+         */
+        @SuppressWarnings("unchecked")
+        Batch(int size) {
+            final int bytes = Float.BYTES * size * FeatureEncoder.length(19);
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes);
+            inputs = buffer.order(ByteOrder.nativeOrder()).asFloatBuffer();
+            priors = new float[size * (1 + MAX_POINTS)];
+            values = new float[size];
+            futures = new CompletableFuture[size];
+        }
+
+
+        /**
+         * Check if a position of the given size can be added.
+         */
+        boolean accepts(int gameSize) {
+            return count == 0 || (
+                count < futures.length && gameSize == this.gameSize);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.joansala.game.go.eval;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+/**
+ * Evaluation of a Go position.
+ */
+public final class Evaluation {
+
+    /** Move probabilities indexed by move identifier */
+    public final float[] priors;
+
+    /** Expected outcome for the player to move in [-1, 1] */
+    public final float value;
+
+
+    /**
+     * Creates a new evaluation.
+     *
+     * @param priors    Move probabilities
+     * @param value     Expected outcome
+     */
+    public Evaluation(float[] priors, float value) {
+        this.priors = priors;
+        this.value = value;
+    }
+}
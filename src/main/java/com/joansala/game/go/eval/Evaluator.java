@@ -0,0 +1,46 @@
+package com.joansala.game.go.eval;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.util.concurrent.CompletableFuture;
+import com.joansala.game.go.GoGame;
+
+
+/**
+ * Evaluates Go positions asynchronously.
+ */
+public interface Evaluator extends AutoCloseable {
+
+    /**
+     * Requests the evaluation of the current position of a game. The
+     * position is captured before this method returns, so the game
+     * can be modified while the evaluation is pending.
+     *
+     * @param game      Game to evaluate
+     * @return          Future evaluation of the position
+     */
+    CompletableFuture<Evaluation> evaluate(GoGame game);
+
+
+    /**
+     * Stops evaluating positions and releases any resources.
+     */
+    @Override
+    void close();
+}
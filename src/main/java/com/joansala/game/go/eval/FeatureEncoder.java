@@ -0,0 +1,362 @@
+package com.joansala.game.go.eval;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import com.joansala.engine.Game;
+import com.joansala.game.go.GoGame;
+import com.joansala.game.go.attacks.Point;
+
+
+/**
+ * Encodes Go positions as network input planes.
+ *
+ * Planes are written straight from the bitboard words of the game
+ * and its history into a caller supplied buffer. Each plane holds one
+ * value for each intersection, in point order, and planes are laid
+ * out in the following order:
+ *
+ * <ul>
+ * <li>Stones of the player to move</li>
+ * <li>Stones of the rival player</li>
+ * <li>Empty intersections</li>
+ * <li>Stones on chains with at most one, two and three or more
+ *     liberties</li>
+ * <li>Ko point</li>
+ * <li>Ones if black is to move, zeros otherwise</li>
+ * <li>Stones of the player to move and its rival for each of the
+ *     previous {@code HISTORY_LENGTH} positions</li>
+ * </ul>
+ *
+ * Float buffers receive zeros and ones while byte buffers receive one
+ * byte for each value. All the buffer positions are absolute, thus
+ * the position and limit of the buffers are never modified.
+ *
+ * Instances of this class are not thread safe.
+ */
+public final class FeatureEncoder {
+
+    /** Number of previous positions encoded */
+    public static final int HISTORY_LENGTH = 8;
+
+    /** Number of planes of an encoded position */
+    public static final int PLANES = 8 + 2 * HISTORY_LENGTH;
+
+    /** Plane of the player to move stones */
+    private static final int PLAYER_PLANE = 0;
+
+    /** Plane of the rival player stones */
+    private static final int RIVAL_PLANE = 1;
+
+    /** Plane of the empty intersections */
+    private static final int EMPTY_PLANE = 2;
+
+    /** Plane of the chains with a single liberty */
+    private static final int LIBERTIES_PLANE = 3;
+
+    /** Plane of the ko point */
+    private static final int KO_PLANE = 6;
+
+    /** Plane of the player to move */
+    private static final int TURN_PLANE = 7;
+
+    /** First plane of the history positions */
+    private static final int HISTORY_PLANE = 8;
+
+    /** Number of words of each color bitboard */
+    private static final int BITSET_WORDS = GoGame.POSITION_WORDS >> 1;
+
+    /** Maximum number of intersections of a board */
+    private static final int MAX_POINTS = 19 * 19;
+
+    /** Bitboard words of the position being encoded */
+    private final long[] words = new long[GoGame.POSITION_WORDS];
+
+    /** Chain stones pending to be visited */
+    private final int[] stack = new int[MAX_POINTS];
+
+    /** Stones of the chain being visited */
+    private final int[] chain = new int[MAX_POINTS];
+
+    /** Visit mark of each intersection */
+    private final int[] marks = new int[MAX_POINTS];
+
+    /** Current visit mark */
+    private int mark = 0;
+
+    /** Float buffer being written or {@code null} */
+    private FloatBuffer floats = null;
+
+    /** Byte buffer being written or {@code null} */
+    private ByteBuffer bytes = null;
+
+
+    /**
+     * Number of values of an encoded position.
+     *
+     * @param gameSize  Board size
+     */
+    public static int length(int gameSize) {
+        return PLANES * gameSize * gameSize;
+    }
+
+
+    /**
+     * Encodes the current position of a game into a float buffer.
+     *
+     * @param game      Game to encode
+     * @param buffer    Destination buffer
+     * @param offset    Buffer index of the first value
+     */
+    public void encode(GoGame game, FloatBuffer buffer, int offset) {
+        floats = buffer;
+        write(game, offset);
+        floats = null;
+    }
+
+
+    /**
+     * Encodes the current position of a game into a byte buffer.
+     *
+     * @param game      Game to encode
+     * @param buffer    Destination buffer
+     * @param offset    Buffer index of the first value
+     */
+    public void encode(GoGame game, ByteBuffer buffer, int offset) {
+        bytes = buffer;
+        write(game, offset);
+        bytes = null;
+    }
+
+
+    /**
+     * Encodes the current positions of a sequence of games, which must
+     * have the same board size, into consecutive regions of a buffer.
+     *
+     * @param games     Games to encode
+     * @param count     Number of games to encode
+     * @param buffer    Destination buffer
+     * @param offset    Buffer index of the first value
+     */
+    public void encode(GoGame[] games, int count, FloatBuffer buffer, int offset) {
+        floats = buffer;
+
+        for (int n = 0; n < count; n++) {
+            offset += write(games[n], offset);
+        }
+
+        floats = null;
+    }
+
+
+    /**
+     * Encodes the current positions of a sequence of games, which must
+     * have the same board size, into consecutive regions of a buffer.
+     *
+     * @param games     Games to encode
+     * @param count     Number of games to encode
+     * @param buffer    Destination buffer
+     * @param offset    Buffer index of the first value
+     */
+    public void encode(GoGame[] games, int count, ByteBuffer buffer, int offset) {
+        bytes = buffer;
+
+        for (int n = 0; n < count; n++) {
+            offset += write(games[n], offset);
+        }
+
+        bytes = null;
+    }
+
+
+    /**
+     * Writes all the planes of a game position.
+     *
+     * @param game      Game to encode
+     * @param offset    Buffer index of the first value
+     * @return          Number of values written
+     */
+    private int write(GoGame game, int offset) {
+        final int gameSize = game.gameSize();
+        final int points = gameSize * gameSize;
+        final int length = PLANES * points;
+        final int player = game.turn() == Game.SOUTH ? 0 : 1;
+        final int rival = 1 ^ player;
+
+        for (int i = offset; i < offset + length; i++) {
+            put(i, 0);
+        }
+
+        // Current position stones, liberties and empty points
+
+        game.copyPosition(0, words, 0);
+
+        for (int point = 0; point < points; point++) {
+            if (isStone(player, point)) {
+                put(offset + PLAYER_PLANE * points + point, 1);
+            } else if (isStone(rival, point)) {
+                put(offset + RIVAL_PLANE * points + point, 1);
+            } else {
+                put(offset + EMPTY_PLANE * points + point, 1);
+            }
+        }
+
+        writeLiberties(gameSize, offset + LIBERTIES_PLANE * points);
+
+        // Ko point and player to move
+
+        final int kopoint = game.kopoint();
+
+        if (kopoint >= 0 && kopoint < points) {
+            put(offset + KO_PLANE * points + kopoint, 1);
+        }
+
+        if (player == 0) {
+            final int start = offset + TURN_PLANE * points;
+
+            for (int i = start; i < start + points; i++) {
+                put(i, 1);
+            }
+        }
+
+        // Stones of the previous positions
+
+        for (int plies = 1; plies <= HISTORY_LENGTH; plies++) {
+            if (game.copyPosition(plies, words, 0) == false) {
+                break;
+            }
+
+            final int plane = HISTORY_PLANE + 2 * (plies - 1);
+            final int start = offset + plane * points;
+
+            for (int point = 0; point < points; point++) {
+                if (isStone(player, point)) {
+                    put(start + point, 1);
+                } else if (isStone(rival, point)) {
+                    put(start + points + point, 1);
+                }
+            }
+        }
+
+        return length;
+    }
+
+
+    /**
+     * Writes the liberty planes of the position on the words array.
+     * Visits each chain of stones once, counting its distinct empty
+     * neighbors, and marks its stones on the matching plane.
+     *
+     * @param gameSize  Board size
+     * @param offset    Buffer index of the first liberties plane
+     */
+    private void writeLiberties(int gameSize, int offset) {
+        final int points = gameSize * gameSize;
+        final int visited = nextMark();
+
+        for (int point = 0; point < points; point++) {
+            if (marks[point] == visited) {
+                continue;
+            }
+
+            final int color = isStone(0, point) ? 0 :
+                isStone(1, point) ? 1 : -1;
+
+            if (color < 0) {
+                continue;
+            }
+
+            // Collect the chain stones and count its liberties
+
+            final int counted = nextMark();
+            int liberties = 0;
+            int length = 0;
+            int size = 0;
+
+            marks[point] = visited;
+            stack[size++] = point;
+
+            while (size > 0) {
+                final int stone = stack[--size];
+                chain[length++] = stone;
+
+                for (int neighbor : Point.attacks(gameSize, stone)) {
+                    if (isStone(color, neighbor)) {
+                        if (marks[neighbor] != visited) {
+                            marks[neighbor] = visited;
+                            stack[size++] = neighbor;
+                        }
+                    } else if (!isStone(1 ^ color, neighbor)) {
+                        if (marks[neighbor] != counted) {
+                            marks[neighbor] = counted;
+                            liberties++;
+                        }
+                    }
+                }
+            }
+
+            // Mark the chain stones on its liberties plane. Chains
+            // without liberties can only come from a set up board.
+
+            final int plane = Math.max(1, Math.min(liberties, 3)) - 1;
+            final int start = offset + plane * points;
+
+            for (int i = 0; i < length; i++) {
+                put(start + chain[i], 1);
+            }
+        }
+    }
+
+
+    /**
+     * Check if a stone of the given color is on a point of the
+     * position stored on the words array.
+     */
+    private boolean isStone(int color, int point) {
+        final long word = words[color * BITSET_WORDS + (point >> 6)];
+        return (word & (1L << point)) != 0;
+    }
+
+
+    /**
+     * Obtain a new visit mark for the intersections.
+     */
+    private int nextMark() {
+        if (++mark == Integer.MAX_VALUE) {
+            Arrays.fill(marks, 0);
+            mark = 1;
+        }
+
+        return mark;
+    }
+
+
+    /**
+     * Writes a value to the buffer being encoded.
+     */
+    private void put(int index, int value) {
+        if (floats != null) {
+            floats.put(index, value);
+        } else {
+            bytes.put(index, (byte) value);
+        }
+    }
+}
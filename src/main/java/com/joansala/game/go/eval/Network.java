@@ -0,0 +1,49 @@
+package com.joansala.game.go.eval;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.nio.FloatBuffer;
+
+
+/**
+ * A policy and value network for Go positions.
+ *
+ * Inputs are laid out as consecutive positions, each made of a number
+ * of planes of {@code gameSize * gameSize} values in point order.
+ */
+public interface Network {
+
+    /**
+     * Number of input planes for each position.
+     */
+    int planes();
+
+
+    /**
+     * Runs a forward pass over a batch of positions.
+     *
+     * @param inputs    Input planes of the batch
+     * @param batchSize Number of positions on the batch
+     * @param gameSize  Board size of the positions
+     * @param priors    Receives {@code gameSize * gameSize + 1} move
+     *                  probabilities for each position
+     * @param values    Receives the value of each position
+     */
+    void forward(FloatBuffer inputs, int batchSize, int gameSize, float[] priors, float[] values);
+}
@@ -0,0 +1,247 @@
+package com.joansala.game.go.eval;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.nio.FloatBuffer;
+import java.util.Random;
+
+
+/**
+ * A small convolutional network that runs on the CPU.
+ *
+ * This network is a reference implementation of the {@link Network}
+ * interface: a single convolution layer followed by a policy and a
+ * value head. Its weights are generated from a seed, so it serves as
+ * a stand-in while a trained network is not available.
+ *
+ * Instances of this class are not thread safe.
+ */
+public class ReferenceNetwork implements Network {
+
+    /** Default number of input planes */
+    public static final int DEFAULT_PLANES = FeatureEncoder.PLANES;
+
+    /** Default number of convolution filters */
+    public static final int DEFAULT_FILTERS = 8;
+
+    /** Default seed of the generated weights */
+    public static final long DEFAULT_SEED = 0x2B7E151628AED2A6L;
+
+    /** Width of the convolution kernels */
+    private static final int KERNEL_SIZE = 3;
+
+    /** Number of input planes */
+    private final int planes;
+
+    /** Number of convolution filters */
+    private final int filters;
+
+    /** Convolution kernel weights */
+    private final float[] kernels;
+
+    /** Convolution biases */
+    private final float[] biases;
+
+    /** Policy head weights */
+    private final float[] policy;
+
+    /** Value head weights */
+    private final float[] value;
+
+    /** Policy logit of the forfeit move */
+    private final float forfeit;
+
+    /** Convolution outputs of a position */
+    private float[] hidden = new float[0];
+
+
+    /**
+     * Creates a network with the default parameters.
+     */
+    public ReferenceNetwork() {
+        this(DEFAULT_PLANES, DEFAULT_FILTERS, DEFAULT_SEED);
+    }
+
+
+    /**
+     * Creates a network with generated weights.
+     *
+     * @param planes    Number of input planes
+     * @param filters   Number of convolution filters
+     * @param seed      Seed of the generated weights
+     */
+    public ReferenceNetwork(int planes, int filters, long seed) {
+        final Random random = new Random(seed);
+        final int area = KERNEL_SIZE * KERNEL_SIZE;
+
+        this.planes = planes;
+        this.filters = filters;
+        this.kernels = weights(random, filters * planes * area, planes * area);
+        this.biases = weights(random, filters, filters);
+        this.policy = weights(random, filters, filters);
+        this.value = weights(random, filters, filters);
+        this.forfeit = -1.0F;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int planes() {
+        return planes;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void forward(FloatBuffer inputs, int batchSize, int gameSize, float[] priors, float[] values) {
+        final int points = gameSize * gameSize;
+
+        if (hidden.length < filters * points) {
+            hidden = new float[filters * points];
+        }
+
+        for (int n = 0; n < batchSize; n++) {
+            convolve(inputs, n * planes * points, gameSize);
+            values[n] = evaluate(points);
+            predict(priors, n * (1 + points), points);
+        }
+    }
+
+
+    /**
+     * Applies the convolution layer to a position, followed by a
+     * rectifier, and stores the result on the hidden array.
+     *
+     * @param inputs    Input planes
+     * @param offset    Index of the position on the inputs
+     * @param gameSize  Board size
+     */
+    private void convolve(FloatBuffer inputs, int offset, int gameSize) {
+        final int points = gameSize * gameSize;
+        final int radius = KERNEL_SIZE >> 1;
+
+        for (int filter = 0; filter < filters; filter++) {
+            for (int point = 0; point < points; point++) {
+                final int row = point / gameSize;
+                final int column = point % gameSize;
+                float sum = biases[filter];
+
+                for (int plane = 0; plane < planes; plane++) {
+                    final int base = offset + plane * points;
+                    int weight = (filter * planes + plane) * KERNEL_SIZE * KERNEL_SIZE;
+
+                    for (int dy = -radius; dy <= radius; dy++) {
+                        for (int dx = -radius; dx <= radius; dx++, weight++) {
+                            final int y = row + dy;
+                            final int x = column + dx;
+
+                            if (y >= 0 && y < gameSize && x >= 0 && x < gameSize) {
+                                sum += kernels[weight] * inputs.get(base + y * gameSize + x);
+                            }
+                        }
+                    }
+                }
+
+                hidden[filter * points + point] = Math.max(0.0F, sum);
+            }
+        }
+    }
+
+
+    /**
+     * Computes the value head output from the hidden array.
+     *
+     * @param points    Number of intersections
+     * @return          Value in [-1, 1]
+     */
+    private float evaluate(int points) {
+        float sum = 0.0F;
+
+        for (int filter = 0; filter < filters; filter++) {
+            float mean = 0.0F;
+
+            for (int point = 0; point < points; point++) {
+                mean += hidden[filter * points + point];
+            }
+
+            sum += value[filter] * mean / points;
+        }
+
+        return (float) Math.tanh(sum);
+    }
+
+
+    /**
+     * Computes the policy head output from the hidden array.
+     *
+     * @param priors    Array where probabilities are stored
+     * @param offset    Index of the first probability
+     * @param points    Number of intersections
+     */
+    private void predict(float[] priors, int offset, int points) {
+        float max = forfeit;
+
+        for (int point = 0; point < points; point++) {
+            float logit = 0.0F;
+
+            for (int filter = 0; filter < filters; filter++) {
+                logit += policy[filter] * hidden[filter * points + point];
+            }
+
+            priors[offset + point] = logit;
+            max = Math.max(max, logit);
+        }
+
+        priors[offset + points] = forfeit;
+
+        float total = 0.0F;
+
+        for (int i = offset; i <= offset + points; i++) {
+            priors[i] = (float) Math.exp(priors[i] - max);
+            total += priors[i];
+        }
+
+        for (int i = offset; i <= offset + points; i++) {
+            priors[i] /= total;
+        }
+    }
+
+
+    /**
+     * Generates an array of normally distributed weights.
+     *
+     * @param random    Random number generator
+     * @param length    Number of weights
+     * @param fanIn     Number of inputs of each unit
+     */
+    private static float[] weights(Random random, int length, int fanIn) {
+        final double scale = Math.sqrt(2.0 / fanIn);
+        final float[] weights = new float[length];
+
+        for (int i = 0; i < length; i++) {
+            weights[i] = (float) (scale * random.nextGaussian());
+        }
+
+        return weights;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Neural network evaluation of Go positions.
+ */
+package com.joansala.game.go.eval;
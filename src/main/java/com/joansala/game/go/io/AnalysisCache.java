@@ -0,0 +1,584 @@
+package com.joansala.game.go.io;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * Persistent cache of search results shared by engine processes.
+ *
+ * Results are appended to a log file and located through an open
+ * addressing hash table on a memory-mapped index file. Each result
+ * holds the number of simulations, the value for the player to move
+ * and the principal variation of a search, keyed by position hash.
+ *
+ * Lookups do not take any locks: a slot is published by writing its
+ * log offset after its hash, and a record is only returned if the hash
+ * stored on the log matches. Writers serialize through a lock on a
+ * separate lock file, and through a lock shared by the caches open on
+ * the same process. When the log exceeds the size cap or the table
+ * is too full, the most recently used results are copied into new
+ * files that replace the old ones; the old index is flagged as stale
+ * before the files are replaced, so other processes reopen the cache.
+ */
+public final class AnalysisCache implements AutoCloseable {
+
+    /** Magic number of the index files */
+    public static final int MAGIC = 0x474F4143;
+
+    /** Format version of the index files */
+    public static final int VERSION = 1;
+
+    /** Minimum number of slots of the index */
+    private static final int MIN_SLOTS = 1 << 12;
+
+    /** Maximum fraction of used slots */
+    private static final double MAX_LOAD = 0.7;
+
+    /** Fraction of the size cap kept on compaction */
+    private static final double COMPACTION_RATIO = 0.5;
+
+    /** Maximum number of moves of a stored variation */
+    public static final int MAX_VARIATION = 32;
+
+    /** Maximum attempts to open a non stale index */
+    private static final int MAX_REOPEN_ATTEMPTS = 100000;
+
+    /** Number of bytes of the index header */
+    private static final int HEADER_SIZE = 32;
+
+    /** Number of bytes of an index slot */
+    private static final int SLOT_SIZE = 24;
+
+    /** Number of bytes of a record without its variation */
+    private static final int RECORD_SIZE = 22;
+
+    /** Offset of the slot count on the index header */
+    private static final int SLOTS_OFFSET = 8;
+
+    /** Offset of the stale flag on the index header */
+    private static final int STALE_OFFSET = 12;
+
+    /** Offset of the used slots count on the index header */
+    private static final int USED_OFFSET = 16;
+
+    /** Writer locks of the caches open on this process */
+    private static final ConcurrentMap<Path, ReentrantLock> writers =
+        new ConcurrentHashMap<>();
+
+    /** Cache directory */
+    private final Path directory;
+
+    /** Writer lock shared by the caches on the same directory */
+    private final ReentrantLock writer;
+
+    /** Maximum size of the log in bytes */
+    private final long maxBytes;
+
+    /** Channel of the lock file */
+    private final FileChannel locks;
+
+    /** Channel of the log file */
+    private FileChannel log;
+
+    /** Channel of the index file */
+    private FileChannel table;
+
+    /** Mapped index file */
+    private MappedByteBuffer index;
+
+    /** Number of slots of the index */
+    private int slots;
+
+
+    /**
+     * A cached search result.
+     */
+    public static final class Entry {
+
+        /** Number of simulations of the search */
+        public final int visits;
+
+        /** Value for the player to move */
+        public final double value;
+
+        /** Principal variation of the search */
+        public final int[] variation;
+
+
+        /**
+         * Creates a new entry.
+         */
+        Entry(int visits, double value, int[] variation) {
+            this.visits = visits;
+            this.value = value;
+            this.variation = variation;
+        }
+    }
+
+
+    /**
+     * Opens a cache directory.
+     */
+    private AnalysisCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+
+        Files.createDirectories(directory);
+        final Path lockPath = directory.resolve("cache.lock");
+        this.writer = writers.computeIfAbsent(
+            lockPath.toAbsolutePath().normalize(), path -> new ReentrantLock());
+        this.locks = FileChannel.open(lockPath,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+
+        writer.lock();
+
+        try (FileLock lock = locks.lock()) {
+            if (!Files.exists(indexPath())) {
+                writeIndex(indexPath(), MIN_SLOTS, new long[0], new long[0], new long[0], 0);
+                Files.deleteIfExists(logPath());
+            }
+
+            reopen();
+        } finally {
+            writer.unlock();
+        }
+    }
+
+
+    /**
+     * Opens or creates a cache on a directory.
+     *
+     * @param directory     Cache directory
+     * @param maxBytes      Maximum bytes of the results log
+     * @return              A new cache instance
+     */
+    public static AnalysisCache open(Path directory, long maxBytes) throws IOException {
+        return new AnalysisCache(directory, maxBytes);
+    }
+
+
+    /**
+     * Obtains the cached result of a position.
+     *
+     * @param hash      Position hash
+     * @return          Cached entry or {@code null}
+     */
+    public synchronized Entry get(long hash) throws IOException {
+        if (isStale()) {
+            reopen();
+        }
+
+        final int slot = findSlot(hash);
+        final long offset = slot < 0 ? 0L : index.getLong(slotOffset(slot) + 8);
+
+        if (offset == 0L) {
+            return null;
+        }
+
+        final Entry entry = readRecord(log, hash, offset - 1);
+
+        if (entry != null) {
+            index.putLong(slotOffset(slot) + 16, System.currentTimeMillis());
+        }
+
+        return entry;
+    }
+
+
+    /**
+     * Stores the result of a search. Results are only replaced by
+     * those with more simulations.
+     *
+     * @param hash      Position hash
+     * @param visits    Number of simulations
+     * @param value     Value for the player to move
+     * @param variation Principal variation moves
+     * @param length    Number of variation moves
+     */
+    public synchronized void put(long hash, int visits, double value, int[] variation, int length) throws IOException {
+        writer.lock();
+
+        try (FileLock lock = locks.lock()) {
+            if (isStale()) {
+                reopen();
+            }
+
+            int slot = findSlot(hash);
+
+            if (slot < 0) {
+                compact();
+                slot = findSlot(hash);
+            }
+
+            final int base = slotOffset(slot);
+            final long offset = index.getLong(base + 8);
+
+            if (offset != 0L) {
+                final Entry entry = readRecord(log, hash, offset - 1);
+
+                if (entry != null && entry.visits >= visits) {
+                    return;
+                }
+            }
+
+            final int moves = Math.min(length, MAX_VARIATION);
+            final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE + 2 * moves);
+            final long position = log.size();
+
+            record.putInt(record.capacity());
+            record.putLong(hash);
+            record.putInt(visits);
+            record.putFloat((float) value);
+            record.putShort((short) moves);
+
+            for (int i = 0; i < moves; i++) {
+                record.putShort((short) variation[i]);
+            }
+
+            record.flip();
+
+            while (record.hasRemaining()) {
+                log.write(record, position + record.position());
+            }
+
+            index.putLong(base + 16, System.currentTimeMillis());
+            index.putLong(base, hash);
+            index.putLong(base + 8, position + 1);
+
+            if (offset == 0L) {
+                index.putLong(USED_OFFSET, 1 + index.getLong(USED_OFFSET));
+            }
+
+            if (log.size() > maxBytes || index.getLong(USED_OFFSET) > MAX_LOAD * slots) {
+                compact();
+            }
+        } finally {
+            writer.unlock();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        log.close();
+        table.close();
+        locks.close();
+    }
+
+
+    /**
+     * Path of the results log.
+     */
+    private Path logPath() {
+        return directory.resolve("cache.log");
+    }
+
+
+    /**
+     * Path of the index file.
+     */
+    private Path indexPath() {
+        return directory.resolve("cache.idx");
+    }
+
+
+    /**
+     * Check if the mapped index was replaced by another process.
+     */
+    private boolean isStale() {
+        return index.getInt(STALE_OFFSET) != 0;
+    }
+
+
+    /**
+     * Opens the current log and index files.
+     *
+     * The index is mapped before the log is opened. Compactions flag
+     * the index as stale before replacing the log, so if the index is
+     * not stale once both files are open the log belongs to it.
+     * Otherwise the files are opened again.
+     *
+     * @throws IOException  If the files are never replaced
+     */
+    private void reopen() throws IOException {
+        for (int attempt = 0; attempt < MAX_REOPEN_ATTEMPTS; attempt++) {
+            if (log != null) {
+                log.close();
+                table.close();
+            }
+
+            table = FileChannel.open(indexPath(),
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+            index = table.map(FileChannel.MapMode.READ_WRITE, 0, table.size());
+
+            if (index.getInt(0) != MAGIC || index.getInt(4) != VERSION) {
+                throw new IOException("Not an analysis cache index");
+            }
+
+            slots = index.getInt(SLOTS_OFFSET);
+            log = FileChannel.open(logPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+            if (isStale() == false) {
+                return;
+            }
+
+            Thread.yield();
+        }
+
+        throw new IOException("Analysis cache files were not replaced");
+    }
+
+
+    /**
+     * Finds the slot of a hash or the empty slot where it would be
+     * stored with linear probing.
+     *
+     * @return          Slot index or -1 if the table is full
+     */
+    private int findSlot(long hash) {
+        final int mask = slots - 1;
+        int slot = (int) mix(hash) & mask;
+
+        for (int i = 0; i < slots; i++) {
+            final int base = slotOffset(slot);
+
+            if (index.getLong(base + 8) == 0L) {
+                return slot;
+            }
+
+            if (index.getLong(base) == hash) {
+                return slot;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+
+    /**
+     * Byte offset of a slot on the index.
+     */
+    private static int slotOffset(int slot) {
+        return HEADER_SIZE + SLOT_SIZE * slot;
+    }
+
+
+    /**
+     * Spreads the bits of a hash to choose its first slot.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        return hash ^ (hash >>> 33);
+    }
+
+
+    /**
+     * Reads a record of the log if it belongs to a hash.
+     *
+     * @return          Entry or {@code null} if not valid
+     */
+    private static Entry readRecord(FileChannel channel, long hash, long offset) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(RECORD_SIZE);
+
+        if (readFully(channel, header, offset) == false) {
+            return null;
+        }
+
+        final int length = header.getInt(0);
+        final int moves = header.getShort(20);
+
+        if (header.getLong(4) != hash || moves < 0 || moves > MAX_VARIATION) {
+            return null;
+        }
+
+        if (length != RECORD_SIZE + 2 * moves) {
+            return null;
+        }
+
+        final ByteBuffer body = ByteBuffer.allocate(2 * moves);
+
+        if (readFully(channel, body, offset + RECORD_SIZE) == false) {
+            return null;
+        }
+
+        final int[] variation = new int[moves];
+
+        for (int i = 0; i < moves; i++) {
+            variation[i] = body.getShort(2 * i);
+        }
+
+        return new Entry(header.getInt(12), header.getFloat(16), variation);
+    }
+
+
+    /**
+     * Reads bytes from a channel position until the buffer is full.
+     *
+     * @return          If the buffer could be filled
+     */
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+
+    /**
+     * Keeps the most recently used results on new files and replaces
+     * the current ones. Must be called holding the writers lock.
+     */
+    private void compact() throws IOException {
+        final List<long[]> live = new ArrayList<>();
+
+        for (int slot = 0; slot < slots; slot++) {
+            final int base = slotOffset(slot);
+            final long offset = index.getLong(base + 8);
+
+            if (offset != 0L) {
+                live.add(new long[] {
+                    index.getLong(base + 16), index.getLong(base), offset - 1 });
+            }
+        }
+
+        live.sort((a, b) -> Long.compare(b[0], a[0]));
+
+        final Path logTemp = logPath().resolveSibling("cache.log.tmp");
+        final Path indexTemp = indexPath().resolveSibling("cache.idx.tmp");
+        final long budget = (long) (COMPACTION_RATIO * maxBytes);
+        final long[] stamps = new long[live.size()];
+        final long[] hashes = new long[live.size()];
+        final long[] offsets = new long[live.size()];
+        long written = 0L;
+        int count = 0;
+
+        try (FileChannel output = FileChannel.open(logTemp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (long[] item : live) {
+                final ByteBuffer size = ByteBuffer.allocate(Integer.BYTES);
+
+                if (readFully(log, size, item[2]) == false) {
+                    continue;
+                }
+
+                final int length = size.getInt(0);
+
+                if (written + length > budget) {
+                    break;
+                }
+
+                final ByteBuffer record = ByteBuffer.allocate(length);
+
+                if (readFully(log, record, item[2]) == false) {
+                    continue;
+                }
+
+                record.flip();
+
+                while (record.hasRemaining()) {
+                    output.write(record);
+                }
+
+                stamps[count] = item[0];
+                hashes[count] = item[1];
+                offsets[count] = written;
+                written += length;
+                count++;
+            }
+        }
+
+        int capacity = MIN_SLOTS;
+
+        while (capacity * MAX_LOAD < 2 * count) {
+            capacity <<= 1;
+        }
+
+        writeIndex(indexTemp, capacity, stamps, hashes, offsets, count);
+        index.putInt(STALE_OFFSET, 1);
+        Files.move(logTemp, logPath(),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        Files.move(indexTemp, indexPath(),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        reopen();
+    }
+
+
+    /**
+     * Writes a new index file.
+     */
+    private static void writeIndex(Path path, int slots, long[] stamps, long[] hashes, long[] offsets, int count) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + SLOT_SIZE * slots);
+        final int mask = slots - 1;
+
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(SLOTS_OFFSET, slots);
+        buffer.putInt(STALE_OFFSET, 0);
+        buffer.putLong(USED_OFFSET, count);
+
+        for (int i = 0; i < count; i++) {
+            int slot = (int) mix(hashes[i]) & mask;
+
+            while (buffer.getLong(slotOffset(slot) + 8) != 0L) {
+                slot = (slot + 1) & mask;
+            }
+
+            buffer.putLong(slotOffset(slot), hashes[i]);
+            buffer.putLong(slotOffset(slot) + 8, offsets[i] + 1);
+            buffer.putLong(slotOffset(slot) + 16, stamps[i]);
+        }
+
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.joansala.game.go.io;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.nio.ByteBuffer;
+import com.joansala.engine.Game;
+import com.joansala.util.bits.Bitset;
+import com.joansala.game.go.GoBoard;
+import com.joansala.game.go.GoGame;
+
+
+/**
+ * Fixed-size binary representation of Go positions.
+ *
+ * A position is stored on {@code LENGTH} bytes with the layout shown
+ * below. Bitboards are copied word by word, thus encoding and decoding
+ * never visit the individual points and a decoded board has exactly
+ * the same diagram as the encoded one.
+ *
+ * <pre>
+ * offset  size  field
+ *      0     1  board size
+ *      1     1  player to move (0 = black, 1 = white)
+ *      2     2  ko point or -1
+ *      4     4  reserved, always zero
+ *      8    48  black stones bitboard
+ *     56    48  white stones bitboard
+ * </pre>
+ *
+ * All the buffer positions are absolute and the byte order of the
+ * buffer is respected. Instances of this class are not thread safe.
+ */
+public final class PositionCodec {
+
+    /** Number of bytes of an encoded position */
+    public static final int LENGTH = 8 + Long.BYTES * GoGame.POSITION_WORDS;
+
+    /** Offset of the board size */
+    private static final int SIZE_OFFSET = 0;
+
+    /** Offset of the player to move */
+    private static final int TURN_OFFSET = 1;
+
+    /** Offset of the ko point */
+    private static final int KO_OFFSET = 2;
+
+    /** Offset of the reserved field */
+    private static final int RESERVED_OFFSET = 4;
+
+    /** Offset of the first bitboard word */
+    private static final int WORDS_OFFSET = 8;
+
+    /** Number of words of each color bitboard */
+    private static final int BITSET_WORDS = GoGame.POSITION_WORDS >> 1;
+
+    /** Bitboard words of the position being encoded */
+    private final long[] words = new long[GoGame.POSITION_WORDS];
+
+
+    /**
+     * Encodes the current position of a game.
+     *
+     * @param game      Game to encode
+     * @param buffer    Destination buffer
+     * @param offset    Buffer index of the first byte
+     */
+    public void encode(GoGame game, ByteBuffer buffer, int offset) {
+        game.copyPosition(0, words, 0);
+        write(buffer, offset, game.gameSize(), game.turn(), game.kopoint());
+    }
+
+
+    /**
+     * Encodes the position of a board.
+     *
+     * @param board     Board to encode
+     * @param buffer    Destination buffer
+     * @param offset    Buffer index of the first byte
+     */
+    public void encode(GoBoard board, ByteBuffer buffer, int offset) {
+        board.copyTo(words, 0);
+        write(buffer, offset, board.gameSize(), board.turn(), board.kopoint());
+    }
+
+
+    /**
+     * Decodes a board from a buffer.
+     *
+     * @param buffer    Source buffer
+     * @param offset    Buffer index of the first byte
+     * @return          A new board instance
+     * @throws IllegalArgumentException If the board size is not valid
+     */
+    public GoBoard decode(ByteBuffer buffer, int offset) {
+        final int gameSize = gameSize(buffer, offset);
+
+        if (gameSize != 9 && gameSize != 13 && gameSize != 19) {
+            throw new IllegalArgumentException(
+                "Not a valid board size: " + gameSize);
+        }
+
+        final Bitset[] position = new Bitset[2];
+
+        for (int i = 0; i < GoGame.POSITION_WORDS; i++) {
+            words[i] = buffer.getLong(offset + WORDS_OFFSET + Long.BYTES * i);
+        }
+
+        for (int color = 0; color < position.length; color++) {
+            position[color] = new Bitset(BITSET_WORDS);
+            position[color].copyFrom(words, color * BITSET_WORDS);
+        }
+
+        final int turn = turn(buffer, offset);
+        final int kopoint = kopoint(buffer, offset);
+
+        return new GoBoard(position, turn, kopoint, gameSize);
+    }
+
+
+    /**
+     * Board size of an encoded position.
+     */
+    public static int gameSize(ByteBuffer buffer, int offset) {
+        return buffer.get(offset + SIZE_OFFSET);
+    }
+
+
+    /**
+     * Player to move on an encoded position.
+     */
+    public static int turn(ByteBuffer buffer, int offset) {
+        return buffer.get(offset + TURN_OFFSET) == 0 ? Game.SOUTH : Game.NORTH;
+    }
+
+
+    /**
+     * Ko point of an encoded position.
+     */
+    public static int kopoint(ByteBuffer buffer, int offset) {
+        return buffer.getShort(offset + KO_OFFSET);
+    }
+
+
+    /**
+     * Writes a position whose bitboards are on the words array.
+     */
+    private void write(ByteBuffer buffer, int offset, int gameSize, int turn, int kopoint) {
+        buffer.put(offset + SIZE_OFFSET, (byte) gameSize);
+        buffer.put(offset + TURN_OFFSET, (byte) (turn == Game.SOUTH ? 0 : 1));
+        buffer.putShort(offset + KO_OFFSET, (short) kopoint);
+        buffer.putInt(offset + RESERVED_OFFSET, 0);
+
+        for (int i = 0; i < GoGame.POSITION_WORDS; i++) {
+            buffer.putLong(offset + WORDS_OFFSET + Long.BYTES * i, words[i]);
+        }
+    }
+}
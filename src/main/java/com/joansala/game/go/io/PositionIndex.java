@@ -0,0 +1,507 @@
+package com.joansala.game.go.io;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import com.joansala.game.go.GoGame;
+
+
+/**
+ * Memory-mapped index of the positions of a game collection.
+ *
+ * The index maps the hash code of each position, as computed by
+ * {@link GoGame#hash()}, to the game number and ply where the position
+ * occurs. Entries are stored on a file sorted by hash, thus finding all
+ * the occurrences of a position is a binary search over the mapped
+ * file. The file starts with a header followed by the entries:
+ *
+ * <pre>
+ * offset  size  field
+ *      0     4  magic number
+ *      4     4  format version
+ *      8     8  number of entries
+ *     16  16*n  entries, a hash followed by a game number and a ply
+ * </pre>
+ *
+ * Indexes are built from SGF collections with an external sort, so
+ * collections with more positions than fit in memory can be indexed.
+ * Game numbers start at one, in the order of the collection, and ply
+ * zero is the start position of each game.
+ */
+public final class PositionIndex implements AutoCloseable {
+
+    /** Magic number of the index files */
+    public static final int MAGIC = 0x474F4958;
+
+    /** Format version of the index files */
+    public static final int VERSION = 1;
+
+    /** Number of bytes of the file header */
+    private static final int HEADER_SIZE = 16;
+
+    /** Number of bytes of an entry */
+    private static final int ENTRY_SIZE = 16;
+
+    /** Entries on each mapped region (power of two) */
+    private static final int REGION_ENTRIES = 1 << 26;
+
+    /** Entries sorted in memory on each run */
+    private static final int RUN_ENTRIES = 1 << 22;
+
+    /** File channel of the index */
+    private final FileChannel channel;
+
+    /** Mapped regions of the entries */
+    private final MappedByteBuffer[] regions;
+
+    /** Number of entries */
+    private final long size;
+
+
+    /**
+     * Opens an index for reading.
+     */
+    private PositionIndex(FileChannel channel) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("Not a position index");
+            }
+        }
+
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("Not a position index");
+        }
+
+        this.channel = channel;
+        this.size = header.getLong(8);
+        this.regions = new MappedByteBuffer[
+            (int) ((size + REGION_ENTRIES - 1) / REGION_ENTRIES)];
+
+        for (int i = 0; i < regions.length; i++) {
+            final long first = (long) i * REGION_ENTRIES;
+            final long count = Math.min(REGION_ENTRIES, size - first);
+            regions[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                HEADER_SIZE + first * ENTRY_SIZE, count * ENTRY_SIZE);
+        }
+    }
+
+
+    /**
+     * Opens an index file.
+     *
+     * @param path      Index file path
+     * @return          A new index instance
+     */
+    public static PositionIndex open(Path path) throws IOException {
+        return new PositionIndex(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+
+    /**
+     * Number of entries on the index.
+     */
+    public long size() {
+        return size;
+    }
+
+
+    /**
+     * Number of occurrences of the current position of a game.
+     */
+    public int count(GoGame game) {
+        return count(game.hash());
+    }
+
+
+    /**
+     * Number of occurrences of a position.
+     *
+     * @param hash      Position hash
+     */
+    public int count(long hash) {
+        final long first = lowerBound(hash);
+        long last = first;
+
+        while (last < size && hash(last) == hash) {
+            last++;
+        }
+
+        return (int) Math.min(Integer.MAX_VALUE, last - first);
+    }
+
+
+    /**
+     * Finds the occurrences of the current position of a game.
+     *
+     * @see #find(long, long[])
+     */
+    public int find(GoGame game, long[] results) {
+        return find(game.hash(), results);
+    }
+
+
+    /**
+     * Finds the occurrences of a position. Each occurrence is stored
+     * as a long value with the game number on its high order bits and
+     * the ply on its low order bits.
+     *
+     * @param hash      Position hash
+     * @param results   Array where the occurrences are stored
+     * @return          Number of occurrences stored
+     */
+    public int find(long hash, long[] results) {
+        long entry = lowerBound(hash);
+        int count = 0;
+
+        while (count < results.length && entry < size && hash(entry) == hash) {
+            results[count++] = value(entry++);
+        }
+
+        return count;
+    }
+
+
+    /**
+     * Game number of an occurrence.
+     */
+    public static int gameNumber(long occurrence) {
+        return (int) (occurrence >>> 32);
+    }
+
+
+    /**
+     * Ply of an occurrence.
+     */
+    public static int ply(long occurrence) {
+        return (int) occurrence;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+
+    /**
+     * Index of the first entry whose hash is not less than the given
+     * one, comparing hashes as unsigned values.
+     */
+    private long lowerBound(long hash) {
+        long low = 0L;
+        long high = size;
+
+        while (low < high) {
+            final long middle = (low + high) >>> 1;
+
+            if (Long.compareUnsigned(hash(middle), hash) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+
+    /**
+     * Hash of an entry.
+     */
+    private long hash(long entry) {
+        final int region = (int) (entry / REGION_ENTRIES);
+        final int offset = (int) (entry % REGION_ENTRIES) * ENTRY_SIZE;
+        return regions[region].getLong(offset);
+    }
+
+
+    /**
+     * Occurrence value of an entry.
+     */
+    private long value(long entry) {
+        final int region = (int) (entry / REGION_ENTRIES);
+        final int offset = (int) (entry % REGION_ENTRIES) * ENTRY_SIZE;
+        return regions[region].getLong(offset + Long.BYTES);
+    }
+
+
+    /**
+     * Builds an index of all the positions of an SGF collection.
+     *
+     * @param collection    SGF collection file
+     * @param path          Index file to write
+     * @return              Number of entries of the index
+     */
+    public static long build(Path collection, Path path) throws IOException {
+        final List<Path> runs = new ArrayList<>();
+        final long[] hashes = new long[RUN_ENTRIES];
+        final long[] values = new long[RUN_ENTRIES];
+        int count = 0;
+        int number = 0;
+
+        try (SGFReader reader = SGFReader.map(collection)) {
+            GoGame game;
+
+            while ((game = reader.next()) != null) {
+                number++;
+
+                for (int ply = game.length(); ply >= 0; ply--) {
+                    if (count == RUN_ENTRIES) {
+                        runs.add(writeRun(path, runs.size(), hashes, values, count));
+                        count = 0;
+                    }
+
+                    hashes[count] = game.hash();
+                    values[count] = ((long) number << 32) | ply;
+                    count++;
+
+                    if (ply > 0) {
+                        game.unmakeMove();
+                    }
+                }
+            }
+
+            runs.add(writeRun(path, runs.size(), hashes, values, count));
+
+            return mergeRuns(path, runs);
+        } finally {
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+
+    /**
+     * Sorts a run of entries and writes it to a temporary file.
+     */
+    private static Path writeRun(Path path, int run, long[] hashes, long[] values, int count) throws IOException {
+        final Path file = path.resolveSibling(path.getFileName() + ".run" + run);
+
+        sort(hashes, values, count);
+
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+
+            for (int i = 0; i < count; i++) {
+                if (buffer.remaining() < ENTRY_SIZE) {
+                    drain(channel, buffer);
+                }
+
+                buffer.putLong(hashes[i]);
+                buffer.putLong(values[i]);
+            }
+
+            drain(channel, buffer);
+        }
+
+        return file;
+    }
+
+
+    /**
+     * Merges sorted runs into an index file.
+     *
+     * @return          Number of entries written
+     */
+    private static long mergeRuns(Path path, List<Path> runs) throws IOException {
+        final PriorityQueue<Run> queue = new PriorityQueue<>();
+        final List<FileChannel> channels = new ArrayList<>();
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        long size = 0L;
+
+        try (FileChannel output = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Path file : runs) {
+                final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                final Run run = new Run(channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+                channels.add(channel);
+
+                if (run.buffer.hasRemaining()) {
+                    run.advance();
+                    queue.add(run);
+                }
+            }
+
+            buffer.position(HEADER_SIZE);
+
+            while (!queue.isEmpty()) {
+                final Run run = queue.poll();
+
+                if (buffer.remaining() < ENTRY_SIZE) {
+                    drain(output, buffer);
+                }
+
+                buffer.putLong(run.hash);
+                buffer.putLong(run.value);
+                size++;
+
+                if (run.buffer.hasRemaining()) {
+                    run.advance();
+                    queue.add(run);
+                }
+            }
+
+            drain(output, buffer);
+
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putLong(size).flip();
+
+            while (header.hasRemaining()) {
+                output.write(header, header.position());
+            }
+        } finally {
+            for (FileChannel channel : channels) {
+                channel.close();
+            }
+        }
+
+        return size;
+    }
+
+
+    /**
+     * Writes the contents of a buffer and clears it.
+     */
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+
+
+    /**
+     * Sorts entries by unsigned hash with an in-place heap sort.
+     */
+    private static void sort(long[] hashes, long[] values, int count) {
+        for (int i = count / 2 - 1; i >= 0; i--) {
+            siftDown(hashes, values, i, count);
+        }
+
+        for (int end = count - 1; end > 0; end--) {
+            swap(hashes, values, 0, end);
+            siftDown(hashes, values, 0, end);
+        }
+    }
+
+
+    /**
+     * Restores the heap property from a node downwards.
+     */
+    private static void siftDown(long[] hashes, long[] values, int node, int count) {
+        while (true) {
+            final int left = 2 * node + 1;
+            final int right = left + 1;
+            int largest = node;
+
+            if (left < count && Long.compareUnsigned(hashes[left], hashes[largest]) > 0) {
+                largest = left;
+            }
+
+            if (right < count && Long.compareUnsigned(hashes[right], hashes[largest]) > 0) {
+                largest = right;
+            }
+
+            if (largest == node) {
+                return;
+            }
+
+            swap(hashes, values, node, largest);
+            node = largest;
+        }
+    }
+
+
+    /**
+     * Exchanges two entries.
+     */
+    private static void swap(long[] hashes, long[] values, int i, int j) {
+        final long hash = hashes[i];
+        final long value = values[i];
+        hashes[i] = hashes[j];
+        values[i] = values[j];
+        hashes[j] = hash;
+        values[j] = value;
+    }
+
+
+    /**
+     * A sorted run being merged.
+     */
+    private static final class Run implements Comparable<Run> {
+
+        /** Mapped entries of the run */
+        final ByteBuffer buffer;
+
+        /** Hash of the current entry */
+        long hash;
+
+        /** Value of the current entry */
+        long value;
+
+
+        /**
+         * Creates a new run.
+         */
+        Run(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+
+        /**
+         * Reads the next entry of the run.
+         */
+        void advance() {
+            hash = buffer.getLong();
+            value = buffer.getLong();
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int compareTo(Run other) {
+            final int order = Long.compareUnsigned(hash, other.hash);
+            return order != 0 ? order : Long.compare(value, other.value);
+        }
+    }
+}
@@ -0,0 +1,614 @@
+package com.joansala.game.go.io;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import com.joansala.engine.Game;
+import com.joansala.util.bits.Bitset;
+import com.joansala.game.go.GoBoard;
+import com.joansala.game.go.GoGame;
+
+
+/**
+ * Reads the games of an SGF collection one at a time.
+ *
+ * The collection is parsed byte by byte from a channel, either through
+ * a read buffer or through consecutive memory-mapped regions of a file,
+ * and the moves of each game are performed on a {@link GoGame} as they
+ * are read. Only the main line of each game is followed; the rest of
+ * the variations are skipped.
+ *
+ * The reader understands the board size ({@code SZ}), komi ({@code KM}),
+ * result ({@code RE}), player to move ({@code PL}), handicap ({@code HA})
+ * and setup stones ({@code AB} and {@code AW}) of the root node besides
+ * the moves. Other properties are ignored. If the player to move is not
+ * given, the player of the first move is the first to move, or white on
+ * handicap games without moves. Games are played on a reused game instance
+ * for each board size, thus a returned game is only valid until the
+ * next one is read.
+ */
+public class SGFReader implements AutoCloseable {
+
+    /** Default size of the read buffer in bytes */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    /** Size of each memory-mapped region in bytes */
+    public static final long MAP_SIZE = 1L << 28;
+
+    /** Property identifier of black moves */
+    private static final int BLACK_MOVE = ident("B");
+
+    /** Property identifier of white moves */
+    private static final int WHITE_MOVE = ident("W");
+
+    /** Property identifier of black setup stones */
+    private static final int ADD_BLACK = ident("AB");
+
+    /** Property identifier of white setup stones */
+    private static final int ADD_WHITE = ident("AW");
+
+    /** Property identifier of the player to move */
+    private static final int PLAYER = ident("PL");
+
+    /** Property identifier of the handicap */
+    private static final int HANDICAP = ident("HA");
+
+    /** Property identifier of the board size */
+    private static final int SIZE = ident("SZ");
+
+    /** Property identifier of the komi */
+    private static final int KOMI = ident("KM");
+
+    /** Property identifier of the result */
+    private static final int RESULT = ident("RE");
+
+    /** Maximum length of a stored property value */
+    private static final int MAX_VALUE_LENGTH = 64;
+
+    /** Number of words of each color bitboard */
+    private static final int BITSET_WORDS = GoGame.POSITION_WORDS >> 1;
+
+    /** Channel being read */
+    private final ReadableByteChannel channel;
+
+    /** File being mapped or {@code null} */
+    private final FileChannel file;
+
+    /** Bytes pending to be parsed */
+    private ByteBuffer buffer;
+
+    /** File offset of the next mapped region */
+    private long mapped = 0L;
+
+    /** Games for each board size */
+    private final GoGame[] games = new GoGame[20];
+
+    /** Bytes of the last stored property value */
+    private final byte[] value = new byte[MAX_VALUE_LENGTH];
+
+    /** Length of the last stored property value */
+    private int length = 0;
+
+    /** Setup stones of each color */
+    private final long[] setup = new long[GoGame.POSITION_WORDS];
+
+    /** Game being played or {@code null} */
+    private GoGame game = null;
+
+    /** Board size of the current game */
+    private int gameSize = 19;
+
+    /** Komi of the current game */
+    private double komi = 0.0;
+
+    /** Player to move first on the current game */
+    private int turn = Game.SOUTH;
+
+    /** If the player to move was given on the current game */
+    private boolean hasPlayer = false;
+
+    /** Handicap stones of the current game */
+    private int handicap = 0;
+
+    /** Result of the current game or {@code null} */
+    private String result = null;
+
+
+    /**
+     * Creates a reader for a channel.
+     *
+     * @param channel       Channel to read
+     */
+    public SGFReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        this.file = null;
+        this.buffer = ByteBuffer.allocateDirect(DEFAULT_BUFFER_SIZE);
+        this.buffer.flip();
+    }
+
+
+    /**
+     * Creates a reader for a memory-mapped file.
+     */
+    private SGFReader(FileChannel file) {
+        this.channel = file;
+        this.file = file;
+        this.buffer = ByteBuffer.allocate(0);
+    }
+
+
+    /**
+     * Opens a file as a sequence of memory-mapped regions.
+     *
+     * @param path          File path
+     * @return              A new reader
+     */
+    public static SGFReader map(Path path) throws IOException {
+        return new SGFReader(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+
+    /**
+     * Board size of the last game read.
+     */
+    public int gameSize() {
+        return gameSize;
+    }
+
+
+    /**
+     * Result property of the last game read or {@code null}.
+     */
+    public String result() {
+        return result;
+    }
+
+
+    /**
+     * Reads the next game of the collection. Games on unsupported
+     * board sizes are skipped.
+     *
+     * @return              Game on its final position or {@code null}
+     *                      if there are no more games
+     * @throws IOException  If the game cannot be read
+     */
+    public GoGame next() throws IOException {
+        while (skipTo('(') >= 0) {
+            resetGame();
+            readGame();
+
+            if (isSupported(gameSize)) {
+                return startGame();
+            }
+        }
+
+        return null;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+
+    /**
+     * Reads the main line of a game tree after its opening parenthesis.
+     */
+    private void readGame() throws IOException {
+        boolean closed = false;
+        int depth = 1;
+
+        while (depth > 0) {
+            final int c = read();
+
+            if (c < 0) {
+                throw new IOException("Unexpected end of collection");
+            }
+
+            if (c == '(') {
+                if (closed == true) {
+                    skipTree();
+                } else {
+                    depth++;
+                }
+            } else if (c == ')') {
+                closed = true;
+                depth--;
+            } else if (c >= 'A' && c <= 'Z') {
+                readProperty(c);
+            }
+        }
+    }
+
+
+    /**
+     * Check if games can be played on a board size.
+     */
+    private static boolean isSupported(int gameSize) {
+        return gameSize == 9 || gameSize == 13 || gameSize == 19;
+    }
+
+
+    /**
+     * Clears the properties of the game being read.
+     */
+    private void resetGame() {
+        Arrays.fill(setup, 0L);
+        game = null;
+        gameSize = 19;
+        komi = 0.0;
+        turn = Game.SOUTH;
+        hasPlayer = false;
+        handicap = 0;
+        result = null;
+    }
+
+
+    /**
+     * Sets up the game to play on the current board size and setup
+     * stones if it was not already set up. The board size must be
+     * a supported one.
+     *
+     * @return              Game being played
+     */
+    private GoGame startGame() {
+        if (game != null) {
+            return game;
+        }
+
+        if (games[gameSize] == null) {
+            games[gameSize] = new GoGame(gameSize);
+        }
+
+        final Bitset[] position = new Bitset[2];
+
+        for (int color = 0; color < position.length; color++) {
+            position[color] = new Bitset(BITSET_WORDS);
+            position[color].copyFrom(setup, color * BITSET_WORDS);
+        }
+
+        if (hasPlayer == false && handicap > 1) {
+            turn = Game.NORTH;
+        }
+
+        game = games[gameSize];
+        game.setBoard(new GoBoard(position, turn, gameSize));
+        game.setKomiScore(komi);
+
+        return game;
+    }
+
+
+    /**
+     * Reads a property identifier and all its values.
+     *
+     * @param c             First identifier character
+     */
+    private void readProperty(int c) throws IOException {
+        int ident = 0;
+
+        while (c != '[') {
+            if (c >= 'A' && c <= 'Z') {
+                ident = (ident << 5) | (c - '@');
+            } else if (c < 0) {
+                throw new IOException("Unexpected end of collection");
+            }
+
+            c = read();
+        }
+
+        do {
+            readValue();
+            handleValue(ident);
+        } while (skipWhitespace() == '[' && read() == '[');
+    }
+
+
+    /**
+     * Applies a property value to the game being read.
+     *
+     * @param ident         Property identifier
+     */
+    private void handleValue(int ident) throws IOException {
+        if (ident == BLACK_MOVE || ident == WHITE_MOVE) {
+            if (!isSupported(gameSize)) {
+                return;
+            }
+
+            final int color = ident == BLACK_MOVE ? Game.SOUTH : Game.NORTH;
+            playMove(color, toPoint(0));
+        } else if (game != null) {
+            return;
+        } else if (ident == ADD_BLACK || ident == ADD_WHITE) {
+            addStones(ident == ADD_BLACK ? 0 : 1);
+        } else if (ident == SIZE) {
+            gameSize = (int) parseNumber();
+        } else if (ident == KOMI) {
+            komi = parseNumber();
+        } else if (ident == PLAYER) {
+            turn = length > 0 && value[0] == 'W' ? Game.NORTH : Game.SOUTH;
+            hasPlayer = true;
+        } else if (ident == HANDICAP) {
+            handicap = (int) parseNumber();
+        } else if (ident == RESULT) {
+            result = new String(value, 0, length, StandardCharsets.US_ASCII);
+        }
+    }
+
+
+    /**
+     * Performs a move of a player on the game. A forfeit move is
+     * performed first if it was not the turn of the player. The first
+     * move decides the player to move if it was not given.
+     */
+    private void playMove(int color, int point) {
+        if (this.game == null && hasPlayer == false) {
+            turn = color;
+            hasPlayer = true;
+        }
+
+        final GoGame game = startGame();
+        final int forfeit = gameSize * gameSize;
+
+        if (game.turn() != color) {
+            game.ensureCapacity(2 + game.length());
+            game.makeMove(forfeit);
+        }
+
+        game.ensureCapacity(2 + game.length());
+        game.makeMove(point < 0 ? forfeit : point);
+    }
+
+
+    /**
+     * Adds the setup stones of a point or a rectangle of points.
+     *
+     * @param color         Color index of the stones
+     */
+    private void addStones(int color) {
+        final int from = toPoint(0);
+        final int to = length == 5 && value[2] == ':' ? toPoint(3) : from;
+
+        if (from < 0 || to < 0) {
+            return;
+        }
+
+        final int minColumn = Math.min(from % gameSize, to % gameSize);
+        final int maxColumn = Math.max(from % gameSize, to % gameSize);
+        final int minRow = Math.min(from / gameSize, to / gameSize);
+        final int maxRow = Math.max(from / gameSize, to / gameSize);
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                final int point = row * gameSize + column;
+                final int word = color * BITSET_WORDS + (point >> 6);
+                setup[word] |= 1L << point;
+            }
+        }
+    }
+
+
+    /**
+     * Converts the coordinates of the stored value to a point.
+     *
+     * @param offset        Offset of the coordinates on the value
+     * @return              Point index or -1 for a forfeit
+     */
+    private int toPoint(int offset) {
+        if (length < offset + 2) {
+            return -1;
+        }
+
+        final int column = value[offset] - 'a';
+        final int row = gameSize - 1 - (value[offset + 1] - 'a');
+
+        if (column < 0 || column >= gameSize || row < 0 || row >= gameSize) {
+            return -1;
+        }
+
+        return row * gameSize + column;
+    }
+
+
+    /**
+     * Parses the stored value as a decimal number.
+     */
+    private double parseNumber() {
+        double number = 0.0;
+        double scale = 0.0;
+        boolean negative = false;
+
+        for (int i = 0; i < length; i++) {
+            final int c = value[i];
+
+            if (c == '-') {
+                negative = true;
+            } else if (c == '.' || c == ',') {
+                scale = 1.0;
+            } else if (c >= '0' && c <= '9') {
+                number = 10.0 * number + (c - '0');
+                scale *= 10.0;
+            }
+        }
+
+        number = scale > 1.0 ? number / scale : number;
+
+        return negative ? -number : number;
+    }
+
+
+    /**
+     * Reads a property value up to its closing bracket. Only the first
+     * bytes of the value are stored.
+     */
+    private void readValue() throws IOException {
+        length = 0;
+
+        while (true) {
+            int c = read();
+
+            if (c == '\\') {
+                c = read();
+            } else if (c == ']') {
+                break;
+            }
+
+            if (c < 0) {
+                throw new IOException("Unexpected end of collection");
+            }
+
+            if (length < MAX_VALUE_LENGTH) {
+                value[length++] = (byte) c;
+            }
+        }
+    }
+
+
+    /**
+     * Skips a variation and all its subvariations.
+     */
+    private void skipTree() throws IOException {
+        int depth = 1;
+
+        while (depth > 0) {
+            final int c = read();
+
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '[') {
+                readValue();
+            } else if (c < 0) {
+                throw new IOException("Unexpected end of collection");
+            }
+        }
+    }
+
+
+    /**
+     * Skips bytes until the given one is consumed.
+     *
+     * @return              The byte or -1 on end of input
+     */
+    private int skipTo(int target) throws IOException {
+        int c = read();
+
+        while (c >= 0 && c != target) {
+            c = read();
+        }
+
+        return c;
+    }
+
+
+    /**
+     * Skips whitespace bytes without consuming the next one.
+     *
+     * @return              Next byte or -1 on end of input
+     */
+    private int skipWhitespace() throws IOException {
+        while (true) {
+            if (!buffer.hasRemaining() && !refill()) {
+                return -1;
+            }
+
+            final int c = buffer.get(buffer.position()) & 0xFF;
+
+            if (c > ' ') {
+                return c;
+            }
+
+            buffer.get();
+        }
+    }
+
+
+    /**
+     * Consumes the next byte of the input.
+     *
+     * @return              Next byte or -1 on end of input
+     */
+    private int read() throws IOException {
+        if (!buffer.hasRemaining() && !refill()) {
+            return -1;
+        }
+
+        return buffer.get() & 0xFF;
+    }
+
+
+    /**
+     * Fills the buffer with the next bytes of the input.
+     *
+     * @return              If any bytes are available
+     */
+    private boolean refill() throws IOException {
+        if (file != null) {
+            final long size = file.size();
+
+            if (mapped >= size) {
+                return false;
+            }
+
+            final long length = Math.min(MAP_SIZE, size - mapped);
+            buffer = file.map(FileChannel.MapMode.READ_ONLY, mapped, length);
+            mapped += length;
+
+            return true;
+        }
+
+        buffer.clear();
+
+        int count = 0;
+
+        while (count == 0) {
+            count = channel.read(buffer);
+        }
+
+        buffer.flip();
+
+        return count > 0;
+    }
+
+
+    /**
+     * Numeric identifier of a property name.
+     */
+    private static int ident(String name) {
+        int ident = 0;
+
+        for (int i = 0; i < name.length(); i++) {
+            ident = (ident << 5) | (name.charAt(i) - '@');
+        }
+
+        return ident;
+    }
+}
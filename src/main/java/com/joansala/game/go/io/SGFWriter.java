@@ -0,0 +1,237 @@
+package com.joansala.game.go.io;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import com.joansala.engine.Game;
+import com.joansala.game.go.GoBoard;
+import com.joansala.game.go.GoGame;
+
+
+/**
+ * Writes games as an SGF collection into a channel.
+ *
+ * Each game is written as a single main line with the board size,
+ * komi, setup stones and player to move of its start position on the
+ * root node followed by one node for each of its moves. Bytes are
+ * accumulated on a buffer and written to the channel when it is full.
+ */
+public class SGFWriter implements AutoCloseable {
+
+    /** Default size of the write buffer in bytes */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    /** Maximum number of bytes of a node */
+    private static final int MAX_NODE_LENGTH = 64;
+
+    /** Opening of a black move node */
+    private static final byte[] BLACK_NODE = bytes(";B[");
+
+    /** Opening of a white move node */
+    private static final byte[] WHITE_NODE = bytes(";W[");
+
+    /** Number of words of each color bitboard */
+    private static final int BITSET_WORDS = GoGame.POSITION_WORDS >> 1;
+
+    /** Bitboard words of the start position */
+    private final long[] words = new long[GoGame.POSITION_WORDS];
+
+    /** Channel where games are written */
+    private final WritableByteChannel channel;
+
+    /** Bytes pending to be written */
+    private final ByteBuffer buffer;
+
+
+    /**
+     * Creates a new writer.
+     *
+     * @param channel       Destination channel
+     */
+    public SGFWriter(WritableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(DEFAULT_BUFFER_SIZE);
+    }
+
+
+    /**
+     * Writes the moves of a game from its start position.
+     *
+     * @param game          Game to write
+     */
+    public void write(GoGame game) throws IOException {
+        write(game, null);
+    }
+
+
+    /**
+     * Writes the moves of a game from its start position.
+     *
+     * @param game          Game to write
+     * @param result        Result property or {@code null}
+     */
+    public void write(GoGame game, String result) throws IOException {
+        final GoBoard board = (GoBoard) game.getBoard();
+        final int gameSize = game.gameSize();
+        final int[] moves = game.moves();
+
+        reserve(MAX_NODE_LENGTH);
+        put("(;GM[1]FF[4]SZ[");
+        putNumber(gameSize);
+        put("]KM[");
+        put(String.valueOf(game.getKomiScore()));
+        put("]");
+
+        if (result != null) {
+            reserve(MAX_NODE_LENGTH + result.length());
+            put("RE[");
+            put(result.replace("\\", "\\\\").replace("]", "\\]"));
+            put("]");
+        }
+
+        board.copyTo(words, 0);
+        putStones("AB", 0, gameSize);
+        putStones("AW", 1, gameSize);
+
+        if (board.turn() != Game.SOUTH) {
+            put("PL[W]");
+        }
+
+        int turn = board.turn();
+
+        for (int move : moves) {
+            reserve(MAX_NODE_LENGTH);
+            buffer.put(turn == Game.SOUTH ? BLACK_NODE : WHITE_NODE);
+            putPoint(move, gameSize);
+            buffer.put((byte) ']');
+            turn = -turn;
+        }
+
+        reserve(MAX_NODE_LENGTH);
+        put(")\n");
+    }
+
+
+    /**
+     * Writes the buffered bytes to the channel.
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+
+
+    /**
+     * Flushes the buffer and closes the channel.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+
+    /**
+     * Writes a setup property for the stones of a color.
+     *
+     * @param name          Property name
+     * @param color         Color index of the stones
+     * @param gameSize      Board size
+     */
+    private void putStones(String name, int color, int gameSize) throws IOException {
+        final int points = gameSize * gameSize;
+        boolean empty = true;
+
+        for (int point = 0; point < points; point++) {
+            final int word = color * BITSET_WORDS + (point >> 6);
+
+            if ((words[word] & (1L << point)) != 0) {
+                reserve(MAX_NODE_LENGTH);
+
+                if (empty == true) {
+                    put(name);
+                    empty = false;
+                }
+
+                buffer.put((byte) '[');
+                putPoint(point, gameSize);
+                buffer.put((byte) ']');
+            }
+        }
+    }
+
+
+    /**
+     * Writes the coordinates of a point or nothing for a forfeit.
+     */
+    private void putPoint(int point, int gameSize) {
+        if (point >= 0 && point < gameSize * gameSize) {
+            final int column = point % gameSize;
+            final int row = gameSize - 1 - point / gameSize;
+            buffer.put((byte) ('a' + column));
+            buffer.put((byte) ('a' + row));
+        }
+    }
+
+
+    /**
+     * Writes a non-negative decimal number.
+     */
+    private void putNumber(int number) {
+        if (number >= 10) {
+            putNumber(number / 10);
+        }
+
+        buffer.put((byte) ('0' + number % 10));
+    }
+
+
+    /**
+     * Writes the characters of an ASCII string.
+     */
+    private void put(String text) {
+        buffer.put(bytes(text));
+    }
+
+
+    /**
+     * Encodes an ASCII string.
+     */
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+
+    /**
+     * Flushes the buffer if it has not room for the given bytes.
+     */
+    private void reserve(int length) throws IOException {
+        if (buffer.remaining() < length) {
+            flush();
+        }
+    }
+}
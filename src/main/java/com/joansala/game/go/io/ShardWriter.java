@@ -0,0 +1,172 @@
+package com.joansala.game.go.io;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * Writes binary blocks into a sequence of shard files.
+ *
+ * Blocks are accumulated on a direct buffer and written to the file
+ * channel of the current shard whenever the buffer is full. A block
+ * is never split between two shards; a new shard is started when the
+ * current one would exceed its maximum size. Shards are named after
+ * a prefix followed by a sequence number. This class is thread safe.
+ */
+public class ShardWriter implements AutoCloseable {
+
+    /** Default size of the write buffer in bytes */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    /** Default maximum size of a shard in bytes */
+    public static final long DEFAULT_SHARD_SIZE = 1L << 28;
+
+    /** Buffer where blocks are accumulated */
+    private final ByteBuffer buffer;
+
+    /** Directory where shards are stored */
+    private final Path directory;
+
+    /** Name prefix of the shards */
+    private final String prefix;
+
+    /** Maximum size of a shard */
+    private final long shardSize;
+
+    /** Channel of the current shard */
+    private FileChannel channel = null;
+
+    /** Bytes written to the current shard */
+    private long written = 0L;
+
+    /** Sequence number of the current shard */
+    private int shard = -1;
+
+
+    /**
+     * Creates a new writer with the default sizes.
+     *
+     * @param directory     Directory of the shards
+     * @param prefix        Name prefix of the shards
+     */
+    public ShardWriter(Path directory, String prefix) {
+        this(directory, prefix, DEFAULT_SHARD_SIZE, DEFAULT_BUFFER_SIZE);
+    }
+
+
+    /**
+     * Creates a new writer.
+     *
+     * @param directory     Directory of the shards
+     * @param prefix        Name prefix of the shards
+     * @param shardSize     Maximum bytes of each shard
+     * @param bufferSize    Bytes of the write buffer
+     */
+    public ShardWriter(Path directory, String prefix, long shardSize, int bufferSize) {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.shardSize = shardSize;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+
+    /**
+     * Path of a shard file.
+     *
+     * @param shard         Shard sequence number
+     */
+    public Path shardPath(int shard) {
+        return directory.resolve(String.format("%s-%05d.bin", prefix, shard));
+    }
+
+
+    /**
+     * Appends a block to the current shard. The remaining bytes of
+     * the block buffer are written and its position is advanced.
+     *
+     * @param block         Block to write
+     */
+    public synchronized void write(ByteBuffer block) throws IOException {
+        final int length = block.remaining();
+
+        if (channel == null || (written > 0 && written + length > shardSize)) {
+            rotate();
+        }
+
+        if (length > buffer.remaining()) {
+            flush();
+        }
+
+        if (length > buffer.capacity()) {
+            while (block.hasRemaining()) {
+                channel.write(block);
+            }
+        } else {
+            buffer.put(block);
+        }
+
+        written += length;
+    }
+
+
+    /**
+     * Writes the buffered blocks to the current shard.
+     */
+    public synchronized void flush() throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+
+
+    /**
+     * Flushes the buffer and closes the current shard.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            flush();
+            channel.close();
+            channel = null;
+        }
+    }
+
+
+    /**
+     * Closes the current shard and opens the next one.
+     */
+    private void rotate() throws IOException {
+        close();
+        shard++;
+        written = 0L;
+        channel = FileChannel.open(shardPath(shard),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+    }
+}
@@ -0,0 +1,181 @@
+package com.joansala.game.go.io;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.nio.ByteBuffer;
+import com.joansala.engine.Game;
+import com.joansala.game.go.GoGame;
+
+
+/**
+ * Bit-packed training record of a self-play position.
+ *
+ * Each record stores a position, the move played on it, the number
+ * of simulations the search spent on each move and the outcome of the
+ * game. Records are written in big-endian order with this layout:
+ *
+ * <pre>
+ * offset  size  field
+ *      0     1  board size
+ *      1     1  player to move (0 = black, 1 = white)
+ *      2     2  move played
+ *      4     2  ko point or -1
+ *      6     4  game outcome
+ *     10     2  number of visit entries
+ *     12     b  board, two bits for each point
+ *   12+b   4*n  visit entries, a move and its visits each
+ * </pre>
+ *
+ * Points are packed four per byte starting from the least significant
+ * bits, with zero for empty, one for black and two for white stones.
+ * Only moves with visits are stored and their counts are scaled down
+ * proportionally when they exceed an unsigned short.
+ */
+public final class TrainingRecord {
+
+    /** Number of bytes before the board */
+    public static final int HEADER_SIZE = 12;
+
+    /** Offset of the outcome field */
+    public static final int OUTCOME_OFFSET = 6;
+
+    /** Maximum value of a visit count */
+    private static final int MAX_VISITS = 0xFFFF;
+
+    /** Number of words of each color bitboard */
+    private static final int BITSET_WORDS = GoGame.POSITION_WORDS >> 1;
+
+    /** Bitboard words of the encoded position */
+    private final long[] words = new long[GoGame.POSITION_WORDS];
+
+
+    /**
+     * Number of bytes of a packed board.
+     *
+     * @param gameSize  Board size
+     */
+    public static int boardSize(int gameSize) {
+        return (gameSize * gameSize + 3) >> 2;
+    }
+
+
+    /**
+     * Maximum number of bytes of a record.
+     *
+     * @param gameSize  Board size
+     */
+    public static int maxLength(int gameSize) {
+        final int moves = 1 + gameSize * gameSize;
+        return HEADER_SIZE + boardSize(gameSize) + 4 * moves;
+    }
+
+
+    /**
+     * Writes a record of the current position of a game at the buffer
+     * position. The outcome is written as a draw and can be set once
+     * the game is over with {@link #setOutcome(ByteBuffer, int, int)}.
+     *
+     * @param buffer    Destination buffer
+     * @param game      Game on the recorded position
+     * @param move      Move played on the position
+     * @param visits    Visits of each move identifier
+     * @return          Offset of the record on the buffer
+     */
+    public int write(ByteBuffer buffer, GoGame game, int move, int[] visits) {
+        final int offset = buffer.position();
+        final int gameSize = game.gameSize();
+        final int moves = 1 + gameSize * gameSize;
+
+        int entries = 0;
+        int maximum = 0;
+
+        for (int i = 0; i < moves; i++) {
+            if (visits[i] > 0) {
+                maximum = Math.max(maximum, visits[i]);
+                entries++;
+            }
+        }
+
+        buffer.put((byte) gameSize);
+        buffer.put((byte) (game.turn() == Game.SOUTH ? 0 : 1));
+        buffer.putShort((short) move);
+        buffer.putShort((short) game.kopoint());
+        buffer.putInt(Game.DRAW_SCORE);
+        buffer.putShort((short) entries);
+
+        writeBoard(buffer, game);
+
+        for (int i = 0; i < moves; i++) {
+            if (visits[i] > 0) {
+                final long count = maximum > MAX_VISITS ?
+                    Math.max(1L, (long) visits[i] * MAX_VISITS / maximum) :
+                    visits[i];
+                buffer.putShort((short) i);
+                buffer.putShort((short) count);
+            }
+        }
+
+        return offset;
+    }
+
+
+    /**
+     * Sets the game outcome of a record.
+     *
+     * @param buffer    Buffer containing the record
+     * @param offset    Offset of the record on the buffer
+     * @param outcome   Outcome of the game
+     */
+    public static void setOutcome(ByteBuffer buffer, int offset, int outcome) {
+        buffer.putInt(offset + OUTCOME_OFFSET, outcome);
+    }
+
+
+    /**
+     * Writes the two bits of each point of the current position.
+     */
+    private void writeBoard(ByteBuffer buffer, GoGame game) {
+        final int gameSize = game.gameSize();
+        final int points = gameSize * gameSize;
+        int value = 0;
+
+        game.copyPosition(0, words, 0);
+
+        for (int point = 0; point < points; point++) {
+            final int shift = (point & 3) << 1;
+            final long bit = 1L << point;
+            final int word = point >> 6;
+
+            if ((words[word] & bit) != 0) {
+                value |= 1 << shift;
+            } else if ((words[BITSET_WORDS + word] & bit) != 0) {
+                value |= 2 << shift;
+            }
+
+            if ((point & 3) == 3) {
+                buffer.put((byte) value);
+                value = 0;
+            }
+        }
+
+        if ((points & 3) != 0) {
+            buffer.put((byte) value);
+        }
+    }
+}
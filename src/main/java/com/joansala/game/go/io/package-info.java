@@ -0,0 +1,4 @@
+/**
+ * Binary formats and storage of Go games and positions.
+ */
+package com.joansala.game.go.io;
@@ -0,0 +1,313 @@
+package com.joansala.game.go.metrics;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+
+/**
+ * Counters of the hot paths of the game and the engine.
+ *
+ * Counters are striped, so threads increment them without contention,
+ * and they are only collected if the {@code go.counters} system
+ * property is set to {@code true} on startup. Otherwise the counting
+ * code is removed by the JIT compiler and has no cost at all. When enabled
+ * the counters are also published as a platform MBean.
+ */
+public final class GoCounters implements GoCountersMBean {
+
+    /** If counting is enabled for this process */
+    public static final boolean ENABLED = Boolean.getBoolean("go.counters");
+
+    /** Object name of the published MBean */
+    public static final String OBJECT_NAME = "com.joansala.game.go:type=Counters";
+
+    /** Buckets of the playout length histograms */
+    public static final int BUCKETS = 11;
+
+    /** Board sizes of the histograms */
+    private static final int[] SIZES = { 9, 13, 19 };
+
+    /** Counted events */
+    public enum Counter {
+        MOVES, CHAINS, KO_CHECKS, SCORES, COPIES,
+        SEARCHES, PLAYOUTS, PLAYOUT_PLIES
+    }
+
+    /** Counter values indexed by ordinal */
+    private static final LongAdder[] counters =
+        new LongAdder[Counter.values().length];
+
+    /** Playout length histograms for each board size */
+    private static final LongAdder[][] histograms =
+        new LongAdder[SIZES.length][BUCKETS];
+
+    /** Published instance */
+    private static final GoCounters instance = new GoCounters();
+
+    static {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+
+        for (LongAdder[] histogram : histograms) {
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+
+        if (ENABLED == true) {
+            register();
+        }
+    }
+
+
+    /**
+     * Instances are only created to be published.
+     */
+    private GoCounters() {}
+
+
+    /**
+     * Publishes the counters on the platform MBean server. If they
+     * cannot be published they are still readable from this class.
+     */
+    private static void register() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(instance, name);
+        } catch (JMException | SecurityException e) {
+            System.err.println("Counters not published: " + e.getMessage());
+        }
+    }
+
+
+    /**
+     * Increments a counter by one.
+     *
+     * @param counter   Counter to increment
+     */
+    public static void increment(Counter counter) {
+        if (ENABLED == true) {
+            counters[counter.ordinal()].increment();
+        }
+    }
+
+
+    /**
+     * Counts a simulated playout.
+     *
+     * @param gameSize  Board size
+     * @param length    Plies of the playout
+     */
+    public static void playout(int gameSize, int length) {
+        if (ENABLED == true) {
+            counters[Counter.PLAYOUTS.ordinal()].increment();
+            counters[Counter.PLAYOUT_PLIES.ordinal()].add(length);
+
+            for (int i = 0; i < SIZES.length; i++) {
+                if (SIZES[i] == gameSize) {
+                    histograms[i][bucket(length)].increment();
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Current value of a counter.
+     *
+     * @param counter   Counter to read
+     * @return          Counter value
+     */
+    public static long get(Counter counter) {
+        return counters[counter.ordinal()].sum();
+    }
+
+
+    /**
+     * Playout length histogram of a board size. Bucket zero counts
+     * empty playouts and bucket {@code n} counts the playouts with a
+     * length from {@code 2^(n-1)} to {@code 2^n - 1}, except for the
+     * last bucket which counts any longer playouts as well.
+     *
+     * @param gameSize  Board size
+     * @return          Histogram counts
+     */
+    public static long[] histogram(int gameSize) {
+        final long[] counts = new long[BUCKETS];
+
+        for (int i = 0; i < SIZES.length; i++) {
+            if (SIZES[i] == gameSize) {
+                for (int n = 0; n < BUCKETS; n++) {
+                    counts[n] = histograms[i][n].sum();
+                }
+            }
+        }
+
+        return counts;
+    }
+
+
+    /**
+     * Summary of the counters on a single line.
+     *
+     * @return          Counter names and values
+     */
+    public static String summary() {
+        final StringJoiner joiner = new StringJoiner(" ");
+
+        for (Counter counter : Counter.values()) {
+            joiner.add(counter.name().toLowerCase());
+            joiner.add(String.valueOf(get(counter)));
+        }
+
+        return joiner.toString();
+    }
+
+
+    /**
+     * Histogram bucket of a playout length.
+     */
+    private static int bucket(int length) {
+        return Math.min(BUCKETS - 1, 32 - Integer.numberOfLeadingZeros(length));
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMoves() {
+        return get(Counter.MOVES);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getChains() {
+        return get(Counter.CHAINS);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getKoChecks() {
+        return get(Counter.KO_CHECKS);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getScores() {
+        return get(Counter.SCORES);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getCopies() {
+        return get(Counter.COPIES);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getSearches() {
+        return get(Counter.SEARCHES);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getPlayouts() {
+        return get(Counter.PLAYOUTS);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long[] getPlayoutLengths9() {
+        return histogram(9);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long[] getPlayoutLengths13() {
+        return histogram(13);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long[] getPlayoutLengths19() {
+        return histogram(19);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getAveragePlayoutLength() {
+        final long playouts = get(Counter.PLAYOUTS);
+        final long plies = get(Counter.PLAYOUT_PLIES);
+        return playouts > 0 ? (double) plies / playouts : 0.0;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset() {
+        for (LongAdder counter : counters) {
+            counter.reset();
+        }
+
+        for (LongAdder[] histogram : histograms) {
+            for (LongAdder bucket : histogram) {
+                bucket.reset();
+            }
+        }
+    }
+}
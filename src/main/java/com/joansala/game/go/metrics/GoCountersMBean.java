@@ -0,0 +1,62 @@
+package com.joansala.game.go.metrics;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+/**
+ * Management interface of the hot path counters.
+ */
+public interface GoCountersMBean {
+
+    /** Moves performed on any game */
+    long getMoves();
+
+    /** Chains of stones built */
+    long getChains();
+
+    /** Ko point checks */
+    long getKoChecks();
+
+    /** Score computations */
+    long getScores();
+
+    /** Game copies */
+    long getCopies();
+
+    /** Searches performed by the engines */
+    long getSearches();
+
+    /** Playouts simulated by the engines */
+    long getPlayouts();
+
+    /** Average plies of each playout */
+    double getAveragePlayoutLength();
+
+    /** Playout lengths histogram of 9x9 games */
+    long[] getPlayoutLengths9();
+
+    /** Playout lengths histogram of 13x13 games */
+    long[] getPlayoutLengths13();
+
+    /** Playout lengths histogram of 19x19 games */
+    long[] getPlayoutLengths19();
+
+    /** Sets all the counters to zero */
+    void reset();
+}
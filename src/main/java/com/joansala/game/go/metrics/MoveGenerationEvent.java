@@ -0,0 +1,45 @@
+package com.joansala.game.go.metrics;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * Flight recorder event of a sampled move generation.
+ */
+@Name("com.joansala.game.go.MoveGeneration")
+@Label("Move Generation")
+@Category({ "Go", "Game" })
+@Description("Sampled generation of the next legal move")
+@StackTrace(false)
+public class MoveGenerationEvent extends Event {
+
+    @Label("Board Size")
+    public int gameSize;
+
+    @Label("Sampling Period")
+    @Description("Calls represented by each event")
+    public int period;
+}
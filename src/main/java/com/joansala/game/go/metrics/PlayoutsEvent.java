@@ -0,0 +1,48 @@
+package com.joansala.game.go.metrics;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * Flight recorder event of a batch of playouts.
+ */
+@Name("com.joansala.game.go.Playouts")
+@Label("Playouts")
+@Category({ "Go", "Engine" })
+@Description("Batch of consecutive playouts of a search")
+@StackTrace(false)
+public class PlayoutsEvent extends Event {
+
+    @Label("Board Size")
+    public int gameSize;
+
+    @Label("Playouts")
+    public int playouts;
+
+    @Label("Plies")
+    @Description("Total plies of the playouts")
+    public long plies;
+}
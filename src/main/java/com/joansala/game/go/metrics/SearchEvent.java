@@ -0,0 +1,54 @@
+package com.joansala.game.go.metrics;
+
+/*
+ * Aalina engine.
+ * Copyright (c) 2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+/**
+ * Flight recorder event of an engine search.
+ */
+@Name("com.joansala.game.go.Search")
+@Label("Search")
+@Category({ "Go", "Engine" })
+@Description("Search of the best move on a position")
+public class SearchEvent extends Event {
+
+    @Label("Board Size")
+    public int gameSize;
+
+    @Label("Simulations")
+    @Description("Simulations performed by the search")
+    public int simulations;
+
+    @Label("Root Simulations")
+    @Description("Simulations of the root node after the search")
+    public int rootSimulations;
+
+    @Label("Best Move")
+    public int bestMove;
+
+    @Label("Move Time")
+    @Description("Time available for the move in milliseconds")
+    public long moveTime;
+}
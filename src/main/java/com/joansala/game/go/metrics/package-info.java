@@ -0,0 +1,4 @@
+/**
+ * Runtime counters and monitoring of the Go game and engine.
+ */
+package com.joansala.game.go.metrics;
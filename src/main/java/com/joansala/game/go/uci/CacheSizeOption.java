@@ -0,0 +1,78 @@
+package com.joansala.game.go.uci;
+
+/*
+ * Copyright (c) 2014-2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+import java.io.IOException;
+import java.nio.file.Path;
+import com.joansala.uci.UCIService;
+import com.joansala.uci.util.SpinOption;
+import com.joansala.game.go.engine.GoMontecarlo;
+import com.joansala.game.go.io.AnalysisCache;
+
+
+/**
+ * Size in megabytes of the persistent analysis cache. The cache is
+ * stored on the directory given by the {@code go.cache} property or
+ * on the user's home otherwise. A size of zero disables the cache.
+ */
+public class CacheSizeOption extends SpinOption {
+
+    /**
+     * Creates a new option instance.
+     */
+    public CacheSizeOption() {
+        super(0, 0, 65536);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void handle(UCIService service, int value) {
+        GoMontecarlo engine = (GoMontecarlo) service.getEngine();
+        AnalysisCache cache = engine.getCache();
+        engine.setCache(null);
+
+        try {
+            if (cache != null) {
+                cache.close();
+            }
+
+            if (value > 0) {
+                engine.setCache(AnalysisCache.open(directory(), (long) value << 20));
+            }
+
+            service.debug("Analysis cache size is now " + value + " MB");
+        } catch (IOException e) {
+            service.debug("Analysis cache is not available: " + e.getMessage());
+        }
+    }
+
+
+    /**
+     * Directory where the cache is stored.
+     */
+    private static Path directory() {
+        String path = System.getProperty("go.cache");
+
+        if (path == null) {
+            return Path.of(System.getProperty("user.home"), ".aalina", "go-cache");
+        }
+
+        return Path.of(path);
+    }
+}
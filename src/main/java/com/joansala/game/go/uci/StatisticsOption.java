@@ -0,0 +1,70 @@
+package com.joansala.game.go.uci;
+
+/*
+ * Copyright (c) 2014-2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+import com.joansala.uci.UCIService;
+import com.joansala.uci.util.CheckOption;
+import com.joansala.game.go.engine.GoMontecarlo;
+import com.joansala.game.go.metrics.GoCounters;
+
+
+/**
+ * Reports the hot path counters as information strings along with
+ * each search report. Counters must be enabled on startup with the
+ * {@code go.counters} system property.
+ */
+public class StatisticsOption extends CheckOption {
+
+    /** If the counters are being reported */
+    private volatile boolean enabled = false;
+
+    /** If the reporter was attached to the engine */
+    private boolean attached = false;
+
+
+    /**
+     * Creates a new option instance.
+     */
+    public StatisticsOption() {
+        super(false);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void handle(UCIService service, boolean value) {
+        GoMontecarlo engine = (GoMontecarlo) service.getEngine();
+
+        if (GoCounters.ENABLED == false) {
+            service.debug("Statistics require the go.counters property");
+            return;
+        }
+
+        if (attached == false) {
+            engine.attachConsumer(report -> {
+                if (enabled == true) {
+                    service.debug(GoCounters.summary());
+                }
+            });
+            attached = true;
+        }
+
+        enabled = value;
+        service.debug("Statistics are now " + (value ? "enabled" : "disabled"));
+    }
+}
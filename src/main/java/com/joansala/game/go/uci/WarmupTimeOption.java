@@ -0,0 +1,52 @@
+package com.joansala.game.go.uci;
+
+/*
+ * Copyright (c) 2014-2021 Joan Sala Soler <contact@joansala.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+import com.joansala.uci.UCIService;
+import com.joansala.uci.util.SpinOption;
+import com.joansala.game.go.GoGame;
+import com.joansala.game.go.engine.GoMontecarlo;
+
+
+/**
+ * Time in milliseconds the engine plays against itself to warm up,
+ * so the first search of a match runs on compiled code. The warm-up
+ * is performed when the option is set, on the current board size.
+ */
+public class WarmupTimeOption extends SpinOption {
+
+    /**
+     * Creates a new option instance.
+     */
+    public WarmupTimeOption() {
+        super(0, 0, 60000);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    public void handle(UCIService service, int value) {
+        GoMontecarlo engine = (GoMontecarlo) service.getEngine();
+        GoGame game = (GoGame) service.getGame();
+
+        if (value > 0) {
+            double rate = engine.warmUp(game.gameSize(), value);
+            service.debug("Warm-up reached " + Math.round(rate) + " simulations/ms");
+        }
+    }
+}
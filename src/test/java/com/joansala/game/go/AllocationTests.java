@@ -0,0 +1,192 @@
+package com.joansala.game.go;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.*;
+import com.joansala.engine.Game;
+
+
+/**
+ * Checks the bytes allocated by the hot paths of the game against a
+ * budget for each operation. Operations are measured on seeded random
+ * games after a warm-up, using the allocation counters of the thread.
+ */
+@DisplayName("Allocation budgets of the game hot paths")
+class AllocationTests {
+
+    /** Seed of the random games */
+    private static final long SEED = 0x5EED_0000_0000_0B0AL;
+
+    /** Random games played on each round */
+    private static final int GAMES = 8;
+
+    /** Rounds played before measuring */
+    private static final int WARMUP_ROUNDS = 5;
+
+    /** Bytes per performed move */
+    private static final long MAKE_MOVE_BUDGET = 512;
+
+    /** Bytes per undone move */
+    private static final long UNMAKE_MOVE_BUDGET = 0;
+
+    /** Bytes per generated move */
+    private static final long NEXT_MOVE_BUDGET = 512;
+
+    /** Bytes per score computation */
+    private static final long SCORE_BUDGET = 2048;
+
+    /** Bytes per full hash computation */
+    private static final long COMPUTE_HASH_BUDGET = 0;
+
+    /** Operations measured on each round */
+    private enum Operation {
+        MAKE_MOVE, UNMAKE_MOVE, NEXT_MOVE, SCORE, COMPUTE_HASH
+    }
+
+    /** Allocated bytes for each operation */
+    private final long[] bytes = new long[Operation.values().length];
+
+    /** Number of calls to each operation */
+    private final long[] calls = new long[Operation.values().length];
+
+    /** Allocation counters of the threads */
+    private static com.sun.management.ThreadMXBean threads;
+
+    /** Bytes allocated by reading the counters */
+    private static long overhead;
+
+
+    @BeforeAll
+    public static void setup() {
+        threads = (com.sun.management.ThreadMXBean)
+            ManagementFactory.getThreadMXBean();
+        overhead = Long.MAX_VALUE;
+
+        for (int i = 0; i < 100; i++) {
+            final long start = allocatedBytes();
+            overhead = Math.min(overhead, allocatedBytes() - start);
+        }
+    }
+
+
+    @Test
+    public void allocationBudgetTest() {
+        assertTrue(threads.isThreadAllocatedMemorySupported());
+
+        for (int gameSize : new int[] { 9, 13, 19 }) {
+            for (int round = 0; round < WARMUP_ROUNDS; round++) {
+                play(gameSize);
+            }
+
+            Arrays.fill(bytes, 0L);
+            Arrays.fill(calls, 0L);
+            play(gameSize);
+
+            assertBudget(gameSize, Operation.MAKE_MOVE, MAKE_MOVE_BUDGET);
+            assertBudget(gameSize, Operation.UNMAKE_MOVE, UNMAKE_MOVE_BUDGET);
+            assertBudget(gameSize, Operation.NEXT_MOVE, NEXT_MOVE_BUDGET);
+            assertBudget(gameSize, Operation.SCORE, SCORE_BUDGET);
+            assertBudget(gameSize, Operation.COMPUTE_HASH, COMPUTE_HASH_BUDGET);
+        }
+    }
+
+
+    /**
+     * Asserts the average bytes of an operation are within budget.
+     */
+    private void assertBudget(int gameSize, Operation operation, long budget) {
+        final int i = operation.ordinal();
+        final long average = bytes[i] / Math.max(1L, calls[i]);
+
+        assertTrue(average <= budget, String.format(
+            "%s on %dx%d allocates %d bytes per call (budget %d)",
+            operation, gameSize, gameSize, average, budget));
+    }
+
+
+    /**
+     * Plays seeded random games measuring each operation.
+     */
+    private void play(int gameSize) {
+        final Random random = new Random(SEED ^ gameSize);
+        final int maxLength = 2 * gameSize * gameSize;
+        final GoGame game = new GoGame(2 + maxLength, gameSize);
+
+        for (int n = 0; n < GAMES; n++) {
+            int length = 0;
+
+            while (length < maxLength && !game.hasEnded()) {
+                final int move = randomMove(game, random);
+
+                long start = allocatedBytes();
+                game.resetCursor();
+
+                while (game.nextMove() != Game.NULL_MOVE) {
+                    calls[Operation.NEXT_MOVE.ordinal()]++;
+                }
+
+                measure(Operation.NEXT_MOVE, start, 0);
+
+                start = allocatedBytes();
+                game.score();
+                measure(Operation.SCORE, start, 1);
+
+                start = allocatedBytes();
+                game.computeHash();
+                measure(Operation.COMPUTE_HASH, start, 1);
+
+                start = allocatedBytes();
+                game.makeMove(move);
+                measure(Operation.MAKE_MOVE, start, 1);
+                length++;
+            }
+
+            while (length-- > 0) {
+                final long start = allocatedBytes();
+                game.unmakeMove();
+                measure(Operation.UNMAKE_MOVE, start, 1);
+            }
+        }
+    }
+
+
+    /**
+     * Accounts the bytes allocated since a start count.
+     */
+    private void measure(Operation operation, long start, int count) {
+        final long allocated = allocatedBytes() - start - overhead;
+        bytes[operation.ordinal()] += Math.max(0L, allocated);
+        calls[operation.ordinal()] += count;
+    }
+
+
+    /**
+     * Bytes allocated by the current thread so far.
+     */
+    private static long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+
+    /**
+     * Picks a random legal move that does not fill an eye, or the
+     * forfeit move if there are no such moves.
+     */
+    private static int randomMove(GoGame game, Random random) {
+        final int points = game.forfeitMove();
+        final int first = random.nextInt(points);
+
+        for (int n = 0; n < points; n++) {
+            final int move = (first + n) % points;
+
+            if (!game.isEye(move) && game.isLegal(move)) {
+                return move;
+            }
+        }
+
+        return game.forfeitMove();
+    }
+}
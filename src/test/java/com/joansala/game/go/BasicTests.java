@@ -1,9 +1,30 @@
 package com.joansala.game.go;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.*;
+import com.joansala.engine.Game;
+import com.joansala.game.go.eval.FeatureEncoder;
+import com.joansala.game.go.io.AnalysisCache;
+import com.joansala.game.go.io.PositionCodec;
+import com.joansala.game.go.io.PositionIndex;
+import com.joansala.game.go.io.SGFReader;
+import com.joansala.game.go.io.SGFWriter;
 
 
 class BasicTests {
@@ -299,4 +320,423 @@ class BasicTests {
 
 
     
-}
\ No newline at end of file
+    @DisplayName("first played plies on a move trace")
+    @Test
+    public void moveTraceTest(){
+        GoGame game  = new GoGame(9);
+        game.makeMove(40);
+        game.startTrace();
+        int[] moves = {41, 39, 81, 30, 81, 31};
+        for (int move : moves){
+            game.makeMove(move);
+        }
+        game.stopTrace();
+
+        assertEquals(game.tracedPly(-1, 41), 0);
+        assertEquals(game.tracedPly(1, 39), 1);
+        assertEquals(game.tracedPly(-1, 81), 2);
+        assertEquals(game.tracedPly(1, 30), 3);
+        assertEquals(game.tracedPly(1, 31), 5);
+        assertEquals(game.tracedPly(1, 40), -1);
+        assertEquals(game.tracedPly(1, 41), -1);
+
+        game.unmakeMoves(moves.length);
+        game.startTrace();
+        assertEquals(game.tracedPly(-1, 41), -1);
+    }
+
+    @DisplayName("ordered move generation returns the same legal moves")
+    @Test
+    public void orderedMovesTest(){
+        GoGame game  = new GoGame(9);
+        int[] moves = {40, 49, 48, 58, 57, 76, 67, 68, 59, 66, 50, 81, 67, 49, 81};
+        for (int move : moves){
+            game.makeMove(move);
+        }
+
+        java.util.Set<Integer> expected = new java.util.HashSet<>();
+        game.resetCursor();
+        int nextMove = game.nextMove();
+        while (nextMove != -1){
+            expected.add(nextMove);
+            nextMove = game.nextMove();
+        }
+
+        java.util.Set<Integer> found = new java.util.HashSet<>();
+        game.setMoveOrdering(true);
+        game.resetCursor();
+        int firstMove = game.nextMove();
+        nextMove = firstMove;
+        int lastMove = -1;
+        while (nextMove != -1){
+            assertTrue(found.add(nextMove));
+            lastMove = nextMove;
+            nextMove = game.nextMove();
+        }
+
+        assertEquals(expected, found);
+        assertEquals(firstMove, 58); // capture of the e6 (49) stone
+        assertEquals(lastMove, 81);  // forfeit comes last
+    }
+
+    @DisplayName("replaying moves after setting the same board")
+    @Test
+    public void replayMovesTest(){
+        int[] moves = {40, 49, 48, 58, 57, 76, 67, 68, 59, 66, 50, 81, 67, 49};
+        int[] longer = {40, 49, 48, 58, 57, 76, 67, 68, 59, 66, 50, 81, 67, 49, 81, 30};
+        int[] diverging = {40, 49, 48, 58, 57, 76, 67, 68, 20, 21};
+
+        GoGame game = new GoGame(9);
+        game.makeMoves(moves);
+
+        for (int[] sequence : new int[][] { longer, moves, diverging, longer }) {
+            GoGame expected = new GoGame(9);
+            for (int move : sequence){
+                expected.makeMove(move);
+            }
+
+            game.setBoard(new GoBoard(9));
+            assertEquals(game.length(), 0);
+            assertEquals(game.hash(), new GoGame(9).hash());
+
+            game.makeMoves(sequence);
+            assertEquals(game.length(), expected.length());
+            assertEquals(game.hash(), expected.hash());
+            assertEquals(game.turn(), expected.turn());
+            assertEquals(game.kopoint(), expected.kopoint());
+            assertArrayEquals(game.moves(), expected.moves());
+            assertEquals(game.toBoard().toDiagram(), expected.toBoard().toDiagram());
+
+            game.unmakeMove();
+            expected.unmakeMove();
+            assertEquals(game.hash(), expected.hash());
+        }
+    }
+
+    @DisplayName("binary positions round trip with their diagrams")
+    @Test
+    public void positionCodecTest(){
+        PositionCodec codec = new PositionCodec();
+        ByteBuffer buffer = ByteBuffer.allocate(2 * PositionCodec.LENGTH);
+        GoGame game = new GoGame(9);
+        int[] moves = {40, 49, 48, 58, 57, 76, 67, 68, 59, 66, 50, 81, 67, 49, 81};
+
+        for (int move : moves){
+            game.makeMove(move);
+            GoBoard board = game.toBoard();
+            codec.encode(game, buffer, 0);
+            codec.encode(board, buffer, PositionCodec.LENGTH);
+
+            GoBoard decoded = codec.decode(buffer, 0);
+            assertEquals(decoded.toDiagram(), board.toDiagram());
+            assertEquals(codec.decode(buffer, PositionCodec.LENGTH).toDiagram(), board.toDiagram());
+            assertEquals(PositionCodec.kopoint(buffer, 0), game.kopoint());
+            assertEquals(PositionCodec.turn(buffer, 0), game.turn());
+        }
+
+        GoBoard board = new GoGame(19).toBoard();
+        codec.encode(board.toBoard(board.toDiagram()), buffer, 0);
+        assertEquals(codec.decode(buffer, 0).toDiagram(), board.toDiagram());
+    }
+
+    @DisplayName("games round trip through an SGF collection")
+    @Test
+    public void sgfRoundTripTest() throws Exception {
+        int[] moves = {40, 49, 48, 58, 57, 76, 67, 68, 59, 66, 50, 81, 67, 49, 81};
+        GoGame game = new GoGame(9);
+        game.makeMoves(moves);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        SGFWriter writer = new SGFWriter(Channels.newChannel(output));
+        writer.write(game, "B+R");
+        writer.write(new GoGame(19));
+        writer.close();
+
+        String collection = "(;GM[1]SZ[7]C[unsupported];B[aa])\n" +
+            output.toString("US-ASCII") +
+            "(;GM[1]FF[4]SZ[9]KM[6.5]C[a \\] comment](;B[ee];W[ef](;B[]C[main];W[tt])(;B[aa]))(;B[cc]))" +
+            "(;GM[1]FF[4]SZ[9]HA[2]KM[0.5]AB[cc][gg];W[ee];B[ef];W[ff])";
+        ReadableByteChannel input = Channels.newChannel(
+            new ByteArrayInputStream(collection.getBytes("US-ASCII")));
+        SGFReader reader = new SGFReader(input);
+
+        GoGame first = reader.next();
+        assertArrayEquals(first.moves(), moves);
+        assertEquals(first.hash(), game.hash());
+        assertEquals(first.getKomiScore(), game.getKomiScore());
+        assertEquals(reader.result(), "B+R");
+
+        GoGame second = reader.next();
+        assertEquals(second.gameSize(), 19);
+        assertEquals(second.length(), 0);
+
+        GoGame third = reader.next();
+        assertArrayEquals(third.moves(), new int[] {40, 31, 81, 81});
+        assertEquals(third.getKomiScore(), 6.5);
+
+        GoGame handicap = reader.next();
+        assertArrayEquals(handicap.moves(), new int[] {40, 31, 32});
+        assertEquals(handicap.turn(), Game.SOUTH);
+        long hash = handicap.hash();
+
+        output = new ByteArrayOutputStream();
+        writer = new SGFWriter(Channels.newChannel(output));
+        writer.write(handicap);
+        writer.close();
+
+        assertEquals(reader.next(), null);
+        reader.close();
+
+        reader = new SGFReader(Channels.newChannel(
+            new ByteArrayInputStream(output.toByteArray())));
+        GoGame copy = reader.next();
+        assertArrayEquals(copy.moves(), new int[] {40, 31, 32});
+        assertEquals(copy.hash(), hash);
+        reader.close();
+    }
+
+    @DisplayName("position index finds the games that reached a position")
+    @Test
+    public void positionIndexTest() throws Exception {
+        Path directory = Files.createTempDirectory("index");
+        Path collection = directory.resolve("games.sgf");
+        Path path = directory.resolve("games.idx");
+
+        try (SGFWriter writer = new SGFWriter(FileChannel.open(collection,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE))) {
+            for (int[] moves : new int[][] {{40, 41, 30}, {30, 41, 40}, {20, 21}}) {
+                GoGame game = new GoGame(9);
+                game.makeMoves(moves);
+                writer.write(game);
+            }
+        }
+
+        assertEquals(PositionIndex.build(collection, path), 11L);
+
+        try (PositionIndex index = PositionIndex.open(path)) {
+            GoGame game = new GoGame(9);
+            long[] results = new long[8];
+            assertEquals(index.count(game), 3);
+
+            game.makeMoves(new int[] {40, 41, 30});
+            assertEquals(index.find(game, results), 2);
+            long first = Math.min(results[0], results[1]);
+            long second = Math.max(results[0], results[1]);
+            assertEquals(PositionIndex.gameNumber(first), 1);
+            assertEquals(PositionIndex.ply(first), 3);
+            assertEquals(PositionIndex.gameNumber(second), 2);
+            assertEquals(PositionIndex.ply(second), 3);
+
+            game.unmakeMove();
+            assertEquals(index.find(game, results), 1);
+            assertEquals(PositionIndex.gameNumber(results[0]), 1);
+            game.makeMove(50);
+            assertEquals(index.count(game), 0);
+        }
+    }
+
+
+    @DisplayName("analysis cache entries are shared and keep the deepest result")
+    @Test
+    public void analysisCacheTest() throws Exception {
+        Path directory = Files.createTempDirectory("cache");
+
+        try (AnalysisCache cache = AnalysisCache.open(directory, 1000);
+             AnalysisCache other = AnalysisCache.open(directory, 1000)) {
+            assertNull(cache.get(1L));
+            cache.put(1L, 100, 0.25, new int[] {40, 41}, 2);
+            cache.put(1L, 50, 0.75, new int[] {30}, 1);
+
+            AnalysisCache.Entry entry = other.get(1L);
+            assertEquals(entry.visits, 100);
+            assertEquals(entry.value, 0.25, 1e-6);
+            assertArrayEquals(entry.variation, new int[] {40, 41});
+
+            for (long hash = 2L; hash < 100L; hash++) {
+                cache.put(hash, 10, 0.5, new int[] {20, 21}, 2);
+            }
+
+            assertNull(other.get(2L));
+            assertEquals(other.get(99L).visits, 10);
+        }
+    }
+
+    @DisplayName("analysis caches stay consistent while another one compacts")
+    @Test
+    public void analysisCacheCompactionTest() throws Exception {
+        Path directory = Files.createTempDirectory("cache");
+        AtomicReference<Exception> failure = new AtomicReference<>();
+
+        try (AnalysisCache writer = AnalysisCache.open(directory, 4096);
+             AnalysisCache reader = AnalysisCache.open(directory, 4096)) {
+            Thread compactor = new Thread(() -> {
+                try {
+                    for (long hash = 1L; hash <= 3000L; hash++) {
+                        writer.put(hash, 10, 0.5, cachedVariation(hash), 2);
+                    }
+                } catch (Exception e) {
+                    failure.set(e);
+                }
+            });
+
+            compactor.start();
+
+            for (long hash = 100001L; compactor.isAlive(); hash++) {
+                reader.put(hash, 10, 0.5, cachedVariation(hash), 2);
+
+                for (long key = hash - 8L; key <= hash; key++) {
+                    AnalysisCache.Entry entry = reader.get(key);
+
+                    if (entry != null) {
+                        assertArrayEquals(entry.variation, cachedVariation(key));
+                    }
+                }
+            }
+
+            compactor.join();
+            assertNull(failure.get());
+
+            for (long hash = 900001L; hash <= 900010L; hash++) {
+                reader.put(hash, 10, 0.5, cachedVariation(hash), 2);
+                assertArrayEquals(writer.get(hash).variation, cachedVariation(hash));
+            }
+
+            for (long hash = 800001L; hash <= 800010L; hash++) {
+                writer.put(hash, 10, 0.5, cachedVariation(hash), 2);
+                assertArrayEquals(reader.get(hash).variation, cachedVariation(hash));
+            }
+        }
+    }
+
+    @DisplayName("perft counts of known positions")
+    @Test
+    public void perftTest() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        String diagram = "9/9/XX3OO2/9/XXXXXXXXX/9/1X1O1XX2/OOOOOOOOO/9 w -";
+
+        GoGame empty = new GoGame(9);
+        assertEquals(GoPerft.count(empty, 1), 82L);
+        assertEquals(GoPerft.count(empty, 2), 6643L);
+        assertEquals(GoPerft.count(empty, 3, pool), 531523L);
+
+        GoGame ko = new GoGame(9);
+        ko.makeMoves(new int[] {41, 40, 49, 48, 39, 50, 72, 58, 31, 80, 49});
+        assertEquals(GoPerft.count(ko, 2), 5185L);
+        assertEquals(GoPerft.count(ko, 3, pool), 368208L);
+
+        GoGame crowded = new GoGame(9);
+        crowded.setBoard(new GoBoard(9).toBoard(diagram));
+        assertEquals(GoPerft.count(crowded, 2), 3079L);
+        assertEquals(GoPerft.count(crowded, 3, pool), 166267L);
+
+        GoGame empty13 = new GoGame(13);
+        assertEquals(GoPerft.count(empty13, 2, pool), 28731L);
+        assertEquals(empty13.hash(), new GoGame(13).hash());
+
+        pool.shutdown();
+    }
+
+    @DisplayName("history stored off the heap matches the heap history")
+    @Test
+    public void offHeapHistoryTest() {
+        GoGame heap = new GoGame(1, 9);
+        GoGame direct = new GoGame(1, 9, true);
+        long[] expected = new long[GoGame.POSITION_WORDS];
+        long[] actual = new long[GoGame.POSITION_WORDS];
+        int[] moves = new int[300];
+
+        for (int n = 0; n < moves.length; n++) {
+            moves[n] = (7 * n) % 82;
+        }
+
+        for (int move : moves) {
+            if (heap.isLegal(move)) {
+                heap.ensureCapacity(2 + heap.length());
+                direct.ensureCapacity(2 + direct.length());
+                heap.makeMove(move);
+                direct.makeMove(move);
+                assertEquals(direct.hash(), heap.hash());
+            }
+        }
+
+        GoGame copy = direct.deepCopy();
+
+        for (int plies = 0; plies < heap.length(); plies++) {
+            heap.copyPosition(plies, expected, 0);
+            copy.copyPosition(plies, actual, 0);
+            assertArrayEquals(expected, actual);
+        }
+
+        while (heap.length() > 0) {
+            heap.unmakeMove();
+            direct.unmakeMove();
+            assertEquals(direct.hash(), heap.hash());
+            assertEquals(direct.kopoint(), heap.kopoint());
+        }
+    }
+
+    @DisplayName("pooled games are reset and reused by board size")
+    @Test
+    public void gamePoolTest() {
+        GoGamePool pool = new GoGamePool(1);
+        GoGame game = pool.acquire(9);
+        GoGame other = pool.acquire(9);
+
+        game.setKomiScore(0.5);
+        game.makeMoves(new int[] {40, 41, 30});
+        pool.release(game);
+        pool.release(other);
+        assertEquals(pool.idle(9), 1);
+        assertEquals(pool.idle(13), 0);
+
+        GoGame reused = pool.acquire(9);
+        assertTrue(reused == game);
+        assertEquals(reused.length(), 0);
+        assertEquals(reused.hash(), new GoGame(9).hash());
+        assertEquals(reused.getKomiScore(), 6.5);
+
+        reused.makeMoves(new int[] {30, 41, 40});
+        assertEquals(reused.moves()[2], 40);
+    }
+
+    @DisplayName("full hash computation matches the incremental hash")
+    @Test
+    public void computeHashTest() {
+        GoGame game = new GoGame(9);
+        int[] moves = {41, 40, 49, 48, 39, 50, 72, 58, 31, 80, 49};
+
+        for (int move : moves) {
+            game.makeMove(move);
+            assertEquals(game.computeHash(), game.hash());
+        }
+
+        game.makeMove(game.forfeitMove());
+        assertEquals(game.computeHash(), game.hash());
+        game.setBoard(game.toBoard());
+        assertEquals(game.computeHash(), game.hash());
+    }
+
+    @DisplayName("chains without liberties are encoded as chains in atari")
+    @Test
+    public void featureEncoderTest() {
+        GoGame game = new GoGame(9);
+        game.setBoard(new GoBoard(9).toBoard("XO7/O8/9/9/9/9/9/O8/XO7 b -"));
+
+        FeatureEncoder encoder = new FeatureEncoder();
+        FloatBuffer buffer = FloatBuffer.allocate(FeatureEncoder.length(9));
+        encoder.encode(game, buffer, 0);
+
+        assertEquals(buffer.get(0), 1.0f);
+        assertEquals(buffer.get(2 * 81), 0.0f);
+        assertEquals(buffer.get(3 * 81), 1.0f);
+        assertEquals(buffer.get(4 * 81), 0.0f);
+        assertEquals(buffer.get(2 * 81 + 40), 1.0f);
+    }
+
+    /**
+     * Variation stored on the cache tests for a hash.
+     */
+    private static int[] cachedVariation(long hash) {
+        return new int[] {(int) (hash % 81), (int) (hash % 80)};
+    }
+}
@@ -0,0 +1,76 @@
+package com.joansala.game.go.engine;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.*;
+import com.joansala.game.go.GoGame;
+import com.joansala.game.go.eval.Evaluation;
+import com.joansala.game.go.eval.Evaluator;
+
+
+class MontecarloTests {
+
+    /** Simulations of each search */
+    private static final int NODE_LIMIT = 2000;
+
+    /** Move favored by the evaluator */
+    private static final int FAVORED_MOVE = 0;
+
+    @DisplayName("searches evaluate their leaves and follow the priors")
+    @Test
+    public void evaluatorPriorsTest() {
+        AtomicInteger calls = new AtomicInteger();
+        Evaluator evaluator = new FavoringEvaluator(calls);
+
+        int[] guided = search(new GoMontecarlo(evaluator));
+        int[] playouts = search(new GoMontecarlo());
+
+        assertTrue(calls.get() > 0);
+        assertTrue(guided[FAVORED_MOVE] > playouts[FAVORED_MOVE]);
+    }
+
+    /**
+     * Searches the starting 9x9 position and returns its root visits.
+     */
+    private static int[] search(GoMontecarlo engine) {
+        GoGame game = new GoGame(9);
+        int[] visits = new int[1 + game.forfeitMove()];
+
+        engine.setSeed(1L);
+        engine.setMoveTime(60000);
+        engine.setNodeLimit(NODE_LIMIT);
+        engine.setWideningFactor(100.0);
+        engine.computeBestMove(game);
+        engine.copyVisits(visits);
+
+        return visits;
+    }
+
+    /**
+     * Evaluator that gives all the probability to a single move.
+     */
+    private static class FavoringEvaluator implements Evaluator {
+
+        /** Number of evaluated positions */
+        private final AtomicInteger calls;
+
+        FavoringEvaluator(AtomicInteger calls) {
+            this.calls = calls;
+        }
+
+        @Override
+        public CompletableFuture<Evaluation> evaluate(GoGame game) {
+            float[] priors = new float[1 + game.forfeitMove()];
+            priors[FAVORED_MOVE] = 1.0F;
+            calls.incrementAndGet();
+
+            return CompletableFuture.completedFuture(
+                new Evaluation(priors, 0.0F));
+        }
+
+        @Override
+        public void close() {}
+    }
+}
@@ -0,0 +1,76 @@
+package com.joansala.game.go.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.*;
+import com.joansala.game.go.GoGame;
+
+
+class TimeManagerTests {
+
+    /** Maximum time of each search */
+    private static final long MOVE_TIME = 1000;
+
+    @DisplayName("middle game searches get more time and are extended")
+    @Test
+    public void middleGameTest() {
+        GoTimeManager timer = new GoTimeManager();
+        GoNode root = closeRoot();
+
+        GoGame opening = new GoGame(19);
+        timer.start(opening, root, MOVE_TIME, 0L);
+        long openingTarget = timer.target();
+
+        GoGame middle = new GoGame(19);
+
+        for (int n = 0; n < 58; n++) {
+            middle.makeMove(n);
+            middle.makeMove(360 - n);
+        }
+
+        timer.reset();
+        timer.start(middle, root, MOVE_TIME, 0L);
+        long middleTarget = timer.target();
+
+        assertTrue(middleTarget > openingTarget);
+        assertTrue(timer.limit() > middleTarget);
+        assertTrue(timer.limit() <= MOVE_TIME);
+        assertFalse(timer.isDone(root, middleTarget));
+        assertTrue(timer.isDone(root, timer.limit()));
+    }
+
+    @DisplayName("explicit move times are never exceeded")
+    @Test
+    public void moveTimeLimitTest() {
+        GoTimeManager timer = new GoTimeManager();
+        GoNode root = closeRoot();
+        GoGame game = new GoGame(9);
+
+        for (int n = 0; n < 20; n++) {
+            timer.start(game, root, MOVE_TIME, 0L);
+            assertTrue(timer.limit() <= MOVE_TIME);
+            timer.stop(1L);
+        }
+
+        timer.setEnabled(false);
+        timer.start(game, root, MOVE_TIME, 0L);
+        assertEquals(timer.limit(), MOVE_TIME);
+    }
+
+    /**
+     * Root node whose two most visited children are close.
+     */
+    private static GoNode closeRoot() {
+        GoNode root = new GoNode();
+        GoNode first = new GoNode(root, 40, 0);
+        GoNode second = new GoNode(root, 41, 0);
+
+        first.count = 100;
+        second.count = 90;
+        root.count = 190;
+
+        return root;
+    }
+}